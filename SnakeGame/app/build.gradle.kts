@@ -30,6 +30,8 @@ android {
 
 dependencies {
 
+    implementation(project(":core"))
+
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("com.google.android.material:material:1.11.0")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
@@ -0,0 +1,143 @@
+package com.csc133.snakegame;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the game loop thread through pauses, resumes and a shutdown
+ * and checks nothing is left running or holding on afterwards.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GameLoopThreadTest {
+
+    private static final String THREAD_NAME = "GameLoopThreadTest";
+
+    // Counts what the thread calls. Idle passes are due every 5ms
+    private static class CountingLoop implements GameLoopThread.Loop {
+        final AtomicInteger starts = new AtomicInteger();
+        final AtomicInteger passes = new AtomicInteger();
+        final AtomicInteger pauses = new AtomicInteger();
+        final AtomicInteger resumes = new AtomicInteger();
+        final AtomicInteger stops = new AtomicInteger();
+        volatile boolean animating;
+
+        @Override
+        public void onLoopStart() {
+            starts.incrementAndGet();
+        }
+
+        @Override
+        public long onLoopPass(long frameTimeNanos) {
+            passes.incrementAndGet();
+            return animating ? GameLoopThread.NEXT_FRAME : TimeUnit.MILLISECONDS.toNanos(5);
+        }
+
+        @Override
+        public void onLoopPause() {
+            pauses.incrementAndGet();
+        }
+
+        @Override
+        public void onLoopResume() {
+            resumes.incrementAndGet();
+        }
+
+        @Override
+        public void onLoopStop() {
+            stops.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void parksWhilePausedAndKeepsOneThread() throws InterruptedException {
+        CountingLoop loop = new CountingLoop();
+        GameLoopThread thread = new GameLoopThread(THREAD_NAME, loop);
+        Thread gameThread = thread.getThread();
+        try {
+            for (int i = 0; i < 20; i++) {
+                loop.animating = i % 2 == 0;
+                thread.resume();
+                awaitPasses(loop, loop.passes.get() + 3);
+                thread.pause();
+
+                // Nothing runs until the next resume
+                int passes = loop.passes.get();
+                Thread.sleep(30);
+                assertEquals(passes, loop.passes.get());
+            }
+
+            assertEquals(1, loop.starts.get());
+            assertEquals(20, loop.resumes.get());
+            assertEquals(20, loop.pauses.get());
+            assertSame(gameThread, thread.getThread());
+            assertEquals(1, threadsNamed(THREAD_NAME));
+        } finally {
+            assertTrue(thread.quit());
+        }
+        assertEquals(1, loop.stops.get());
+    }
+
+    @Test
+    public void shutdownLeavesNothingBehind() throws InterruptedException {
+        CountingLoop loop = new CountingLoop();
+        GameLoopThread thread = new GameLoopThread(THREAD_NAME, loop);
+        thread.resume();
+        awaitPasses(loop, 3);
+
+        // Quitting while passes are running stops them too
+        assertTrue(thread.quit());
+        assertFalse(thread.getThread().isAlive());
+        assertEquals(1, loop.pauses.get());
+        assertEquals(1, loop.stops.get());
+        assertEquals(0, threadsNamed(THREAD_NAME));
+
+        // Nothing the thread ran still holds the loop, so the
+        // view it belongs to could be collected
+        WeakReference<CountingLoop> ref = new WeakReference<>(loop);
+        loop = null;
+        thread = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            Runtime.getRuntime().gc();
+            Thread.sleep(10);
+        }
+        assertNull("the loop leaked", ref.get());
+    }
+
+    @Test
+    public void resumeAfterQuitDoesNothing() {
+        CountingLoop loop = new CountingLoop();
+        GameLoopThread thread = new GameLoopThread(THREAD_NAME, loop);
+        assertTrue(thread.quit());
+
+        thread.resume();
+        thread.pause();
+        thread.wake();
+        assertEquals(0, loop.passes.get());
+    }
+
+    private static void awaitPasses(CountingLoop loop, int passes) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (loop.passes.get() < passes) {
+            assertTrue("only " + loop.passes.get() + " passes", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static int threadsNamed(String name) {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (name.equals(thread.getName()) && thread.isAlive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,119 @@
+package com.csc133.snakegame;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.csc133.snakegame.core.GameEngine;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Draws the same frame with the Canvas renderer and the GL renderer,
+ * offscreen, and checks the pixels match.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RendererPixelTest {
+
+    private static final int BLOCK_SIZE = 24;
+    private static final int BLOCKS_WIDE = 20;
+    private static final int BLOCKS_HIGH = 30;
+
+    // Blending rounds a little differently on the GPU
+    private static final int CHANNEL_TOLERANCE = 3;
+    // and a sprite edge can land on the next pixel over
+    private static final double MAX_DIFFERENT_PIXELS = 0.002;
+
+    @Test
+    public void glFrameMatchesCanvasFrame() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        int width = BLOCKS_WIDE * BLOCK_SIZE;
+        int height = BLOCKS_HIGH * BLOCK_SIZE;
+
+        SpriteAtlas atlas = new SpriteAtlas(context, BLOCK_SIZE);
+        SpriteBatch batch = new SpriteBatch(atlas, BLOCKS_WIDE * BLOCKS_HIGH + 1);
+        Bitmap background = Bitmap.createScaledBitmap(
+                BitmapFactory.decodeResource(context.getResources(), R.drawable.game_background),
+                width, height, false);
+        StaticLayer layer = new StaticLayer(background, Typeface.DEFAULT);
+
+        // A few ticks in so there is an apple and the snake has moved
+        GameEngine engine = new GameEngine(BLOCKS_WIDE, BLOCKS_HIGH, 42);
+        engine.getSnake().grow(4);
+        for (int i = 0; i < 6; i++) {
+            engine.tick();
+        }
+        Apple apple = new Apple(engine.getApple(), atlas, batch);
+        Snake snake = new Snake(engine.getSnake(), atlas, batch);
+
+        final Paint paint = new Paint();
+        paint.setColor(Color.WHITE);
+        paint.setTextSize(60);
+        Renderer.Overlay overlay = new Renderer.Overlay() {
+            @Override
+            public void draw(Canvas canvas) {
+                canvas.drawText("123", 20, 120, paint);
+            }
+        };
+
+        Bitmap expected = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        assertTrue(drawFrame(new CanvasRenderer(expected), layer, apple, snake, batch, overlay));
+
+        Bitmap actual = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        GlRenderer gl = new GlRenderer(width, height, atlas, batch.capacity());
+        try {
+            assertTrue(drawFrame(gl, layer, apple, snake, batch, overlay));
+            gl.readPixels(actual);
+        } finally {
+            gl.release();
+        }
+
+        int different = 0;
+        int[] expectedRow = new int[width];
+        int[] actualRow = new int[width];
+        for (int y = 0; y < height; y++) {
+            expected.getPixels(expectedRow, 0, width, 0, y, width, 1);
+            actual.getPixels(actualRow, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                if (!close(expectedRow[x], actualRow[x])) {
+                    different++;
+                }
+            }
+        }
+        assertTrue(different + " pixels differ",
+                different <= width * height * MAX_DIFFERENT_PIXELS);
+    }
+
+    // The same steps SnakeGame takes for a frame. Halfway through a
+    // tick so the head and tail are drawn between cells
+    private static boolean drawFrame(Renderer renderer, StaticLayer layer, Apple apple,
+                                     Snake snake, SpriteBatch batch, Renderer.Overlay overlay) {
+        if (!renderer.begin(null)) {
+            return false;
+        }
+        renderer.drawStatic(layer, true);
+        apple.queue(batch);
+        snake.queue(batch, 0.5f);
+        renderer.drawSprites(batch);
+        renderer.drawOverlay(overlay, true);
+        renderer.end();
+        return true;
+    }
+
+    private static boolean close(int a, int b) {
+        return Math.abs(Color.red(a) - Color.red(b)) <= CHANNEL_TOLERANCE
+                && Math.abs(Color.green(a) - Color.green(b)) <= CHANNEL_TOLERANCE
+                && Math.abs(Color.blue(a) - Color.blue(b)) <= CHANNEL_TOLERANCE
+                && Math.abs(Color.alpha(a) - Color.alpha(b)) <= CHANNEL_TOLERANCE;
+    }
+}
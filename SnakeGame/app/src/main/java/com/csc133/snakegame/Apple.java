@@ -1,65 +1,59 @@
 package com.csc133.snakegame;
 
-import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
-import android.graphics.Paint;
 import android.graphics.Point;
-import java.util.Random;
 
+import com.csc133.snakegame.core.AppleModel;
+
+// Draws the apple described by an AppleModel.
+// Where it spawns is decided by the model
 class Apple implements DrawableMovable {
 
+    // Where the apple is on the grid
+    private final AppleModel mModel;
+
     // The location of the apple on the grid
     // Not in pixels
     private Point location = new Point();
 
-    // The range of values we can choose from
-    // to spawn an apple
-    private Point mSpawnRange;
     private int mSize;
 
-    // An image to represent the apple
-    private Bitmap mBitmapApple;
+    // The apple image lives in the sprite atlas,
+    // it is queued here to be drawn with everything else
+    private final SpriteBatch mBatch;
 
     /// Set up the apple in the constructor
-    Apple(Context context, Point sr, int s){
+    Apple(AppleModel model, SpriteAtlas atlas, SpriteBatch batch){
 
-        // Make a note of the passed in spawn range
-        mSpawnRange = sr;
+        mModel = model;
         // Make a note of the size of an apple
-        mSize = s;
-        // Hide the apple off-screen until the game starts
-        location.x = -10;
-        location.y = -10;
-
-
-        // Load the image to the bitmap
-        mBitmapApple = BitmapFactory.decodeResource(context.getResources(), R.drawable.apple);
-
-        // Resize the bitmap
-        mBitmapApple = Bitmap.createScaledBitmap(mBitmapApple, s, s, false);
-    }
-
-    // This is called every time an apple is eaten
-    public void spawn(){
-        // Choose two random values and place the apple
-        Random random = new Random();
-        location.x = random.nextInt(mSpawnRange.x) + 1;
-        location.y = random.nextInt(mSpawnRange.y - 1) + 1;
+        mSize = atlas.getSize();
+        mBatch = batch;
     }
 
     // Let SnakeGame know where the apple is
     // SnakeGame can share this with the snake
     public Point getLocation(){
+        if (mModel.isHidden()) {
+            // Hide the apple off-screen until the game starts
+            location.set(-10, -10);
+        } else {
+            location.set(mModel.getX(), mModel.getY());
+        }
         return location;
     }
 
     // Draw the apple
-    public void draw(Canvas canvas, Paint paint){
-        canvas.drawBitmap(mBitmapApple,
-                location.x * mSize, location.y * mSize, paint);
+    public void draw(Renderer renderer){
+        queue(mBatch);
+        renderer.drawSprites(mBatch);
+    }
 
+    // Queue the apple to be drawn with the next batch
+    void queue(SpriteBatch batch) {
+        if (mModel.isHidden()) {
+            return;
+        }
+        batch.add(SpriteAtlas.APPLE, mModel.getX() * mSize, mModel.getY() * mSize);
     }
 
     // Since the Apple doesn't move by itself, this method can be left empty
@@ -71,8 +65,7 @@ class Apple implements DrawableMovable {
     // Resets the apple's position off-screen
     @Override
     public void reset() {
-        location.x = -10; // Move off-screen
-        location.y = -10; // Move off-screen
+        mModel.reset();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.csc133.snakegame;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.Typeface;
+import android.media.SoundPool;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Loads everything the game needs in parallel, off the UI thread.
+// Each asset is a Future so the game can start drawing as soon as
+// the sprites are ready and pick the rest up as they arrive.
+// With DEBUG logging on for AssetLoader each phase is logged with how
+// long it took and how long after the loader started it finished.
+// Once loading is done the same threads do the odd bit of file work
+// the game thread shouldn't wait for, like saving a replay
+class AssetLoader {
+
+    private static final String TAG = "AssetLoader";
+
+    // Sounds that failed to load are this, SoundPool ignores it
+    static final int NO_SOUND = -1;
+
+    private final long mStartNanos = SystemClock.elapsedRealtimeNanos();
+    // How long an idle thread waits for more work before it stops
+    private static final long IDLE_SECONDS = 5;
+
+    private final ThreadPoolExecutor mExecutor;
+
+    private final Future<SpriteAtlas> mAtlas;
+    private final Future<Bitmap> mBackground;
+    private final Future<Typeface> mFont;
+    private final Future<int[]> mSounds;
+
+    AssetLoader(final Context context, final int blockSize, final int width, final int height,
+                final SoundPool soundPool) {
+        // The work is mostly decoding, one thread per core at most
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        mExecutor = new ThreadPoolExecutor(threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "AssetLoader");
+                // Never keep the app alive just to finish loading
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // The threads stop once loading is done and start
+        // again if there is more work later
+        mExecutor.allowCoreThreadTimeOut(true);
+
+        // Quickest first, the game can't draw the board without it
+        mAtlas = submit("sprites", new Callable<SpriteAtlas>() {
+            @Override
+            public SpriteAtlas call() {
+                return new SpriteAtlas(context, blockSize);
+            }
+        });
+
+        // It has no transparency so it is kept as RGB_565
+        mBackground = submit("background", new Callable<Bitmap>() {
+            @Override
+            public Bitmap call() {
+                return SpriteCache.get().get(context.getResources(),
+                        R.drawable.game_background, width, height, SpriteCache.NONE, true);
+            }
+        });
+
+        mFont = submit("font", new Callable<Typeface>() {
+            @Override
+            public Typeface call() {
+                return Typeface.createFromAsset(context.getAssets(), "fonts/press_start_2p.ttf");
+            }
+        });
+
+        // SoundPool decodes on its own thread, this is just opening the files
+        mSounds = submit("sounds", new Callable<int[]>() {
+            @Override
+            public int[] call() {
+                int[] ids = {NO_SOUND, NO_SOUND};
+                try {
+                    AssetManager assetManager = context.getAssets();
+                    ids[0] = soundPool.load(assetManager.openFd("get_apple.ogg"), 0);
+                    ids[1] = soundPool.load(assetManager.openFd("snake_death.ogg"), 0);
+                } catch (IOException e) {
+                    // Play on without sound
+                }
+                return ids;
+            }
+        });
+    }
+
+    Future<SpriteAtlas> getAtlas() {
+        return mAtlas;
+    }
+
+    Future<Bitmap> getBackground() {
+        return mBackground;
+    }
+
+    Future<Typeface> getFont() {
+        return mFont;
+    }
+
+    // The eat sound then the death sound
+    Future<int[]> getSounds() {
+        return mSounds;
+    }
+
+    // Run some work off the game thread
+    void execute(Runnable task) {
+        mExecutor.execute(task);
+    }
+
+    // Log a phase that happened outside the loader,
+    // like the first frame reaching the screen
+    void logPhase(String name) {
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, name + " " + millisSince(mStartNanos) + "ms after start");
+        }
+    }
+
+    // Run a task on the loader's threads and time it
+    private <T> Future<T> submit(final String name, final Callable<T> task) {
+        return mExecutor.submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                long start = SystemClock.elapsedRealtimeNanos();
+                T result = task.call();
+                if (Log.isLoggable(TAG, Log.DEBUG)) {
+                    Log.d(TAG, name + " loaded in " + millisSince(start) + "ms, "
+                            + millisSince(mStartNanos) + "ms after start");
+                }
+                return result;
+            }
+        });
+    }
+
+    private static long millisSince(long nanos) {
+        return (SystemClock.elapsedRealtimeNanos() - nanos) / 1000000;
+    }
+}
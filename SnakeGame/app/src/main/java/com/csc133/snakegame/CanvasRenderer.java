@@ -0,0 +1,77 @@
+package com.csc133.snakegame;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.SurfaceHolder;
+
+// Draws frames with a software Canvas locked from the surface.
+// Only the dirty part of the surface is locked, everything drawn
+// outside it is clipped away. This is the reference the other
+// renderers are compared against
+class CanvasRenderer implements Renderer {
+
+    // Where frames go, or null when drawing into a bitmap
+    private final SurfaceHolder mHolder;
+    private final Canvas mBitmapCanvas;
+
+    // The canvas for the frame being drawn
+    private Canvas mCanvas;
+
+    CanvasRenderer(SurfaceHolder holder) {
+        mHolder = holder;
+        mBitmapCanvas = null;
+    }
+
+    // Draw frames into a bitmap instead of onto the screen
+    CanvasRenderer(Bitmap target) {
+        mHolder = null;
+        mBitmapCanvas = new Canvas(target);
+    }
+
+    @Override
+    public boolean begin(Rect dirty) {
+        if (mHolder == null) {
+            mCanvas = mBitmapCanvas;
+            return true;
+        }
+        if (!mHolder.getSurface().isValid()) {
+            return false;
+        }
+        mCanvas = dirty == null ? mHolder.lockCanvas() : mHolder.lockCanvas(dirty);
+        return mCanvas != null;
+    }
+
+    @Override
+    public void drawStatic(StaticLayer layer, boolean cached) {
+        if (cached) {
+            layer.draw(mCanvas);
+        } else {
+            layer.drawUncached(mCanvas);
+        }
+    }
+
+    @Override
+    public void drawSprites(SpriteBatch batch) {
+        batch.draw(mCanvas);
+    }
+
+    @Override
+    public void drawOverlay(Overlay overlay, boolean changed) {
+        // The canvas is drawn from scratch every frame anyway
+        overlay.draw(mCanvas);
+    }
+
+    @Override
+    public void end() {
+        if (mHolder != null) {
+            mHolder.unlockCanvasAndPost(mCanvas);
+        }
+        mCanvas = null;
+    }
+
+    @Override
+    public void release() {
+        // Nothing is held between frames
+    }
+}
@@ -0,0 +1,221 @@
+package com.csc133.snakegame;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// The one thread the game runs on, for as long as the view lives.
+// The loop is a series of passes posted to the thread's Looper, so
+// between passes, and the whole time the activity is paused, the
+// thread sits parked in the Looper instead of being stopped and a new
+// one started. Pausing just stops posting passes, so the game carries
+// on from where it was when the activity comes back.
+// A pass can ask to be run again on the next vsync, from a
+// Choreographer frame callback, so frames line up with the display.
+// Otherwise the next pass is posted for however long it asks to wait
+class GameLoopThread {
+
+    private static final String TAG = "GameLoopThread";
+
+    // How long pause() and quit() wait for the game thread
+    private static final long WAIT_MILLIS = 2000;
+
+    // What the loop runs. Everything is called on the game thread
+    interface Loop {
+        // Once, before anything else
+        void onLoopStart();
+
+        // One pass of the loop. frameTimeNanos is the vsync the pass is
+        // for, or 0 if it isn't for a frame. Returns how long until the
+        // next pass is due, or NEXT_FRAME to run it on the next vsync
+        long onLoopPass(long frameTimeNanos);
+
+        // Passes have stopped until onLoopResume
+        void onLoopPause();
+
+        // Passes are about to start again
+        void onLoopResume();
+
+        // The last call, the thread stops after it
+        void onLoopStop();
+    }
+
+    // onLoopPass returns this to be run again on the next vsync
+    static final long NEXT_FRAME = -1;
+
+    private final Loop mLoop;
+    private final HandlerThread mThread;
+    private final Handler mHandler;
+    // Made on the game thread, it hands out frames on that thread
+    private Choreographer mChoreographer;
+
+    // Only touched on the game thread
+    private boolean mRunning;
+    private boolean mStopped;
+
+    GameLoopThread(String name, Loop loop) {
+        mLoop = loop;
+        mThread = new HandlerThread(name);
+        mThread.start();
+        mHandler = new Handler(mThread.getLooper());
+        mHandler.post(mStart);
+    }
+
+    // Start running passes, from any thread
+    void resume() {
+        mHandler.post(mResume);
+    }
+
+    // Stop running passes and wait until the pass in progress, if
+    // there is one, has finished. After this returns the game thread
+    // won't touch the surface until resume()
+    void pause() {
+        runAndWait(mPause);
+    }
+
+    // Run a pass now instead of waiting for the next one to be due,
+    // like when a command has been queued. From any thread
+    void wake() {
+        mHandler.post(mWake);
+    }
+
+    // Stop the loop and the thread for good. Returns false if the
+    // thread didn't stop in time
+    boolean quit() {
+        mHandler.post(mStop);
+        // Anything already posted runs first, mStop included
+        mThread.quitSafely();
+        try {
+            mThread.join(WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            // Leave the flag set for whoever is interrupting us
+            Thread.currentThread().interrupt();
+        }
+        if (mThread.isAlive()) {
+            Log.w(TAG, mThread.getName() + " didn't stop");
+            return false;
+        }
+        return true;
+    }
+
+    Thread getThread() {
+        return mThread;
+    }
+
+    private final Runnable mStart = new Runnable() {
+        @Override
+        public void run() {
+            mChoreographer = Choreographer.getInstance();
+            mLoop.onLoopStart();
+        }
+    };
+
+    private final Runnable mResume = new Runnable() {
+        @Override
+        public void run() {
+            if (mRunning || mStopped) {
+                return;
+            }
+            mRunning = true;
+            mLoop.onLoopResume();
+            pass(0);
+        }
+    };
+
+    private final Runnable mPause = new Runnable() {
+        @Override
+        public void run() {
+            if (!mRunning) {
+                return;
+            }
+            mRunning = false;
+            cancelPasses();
+            mLoop.onLoopPause();
+        }
+    };
+
+    private final Runnable mStop = new Runnable() {
+        @Override
+        public void run() {
+            mPause.run();
+            mStopped = true;
+            mLoop.onLoopStop();
+        }
+    };
+
+    private final Runnable mWake = new Runnable() {
+        @Override
+        public void run() {
+            if (mRunning) {
+                pass(0);
+            }
+        }
+    };
+
+    private final Runnable mPass = new Runnable() {
+        @Override
+        public void run() {
+            pass(0);
+        }
+    };
+
+    private final Choreographer.FrameCallback mFrame = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            pass(frameTimeNanos);
+        }
+    };
+
+    // Run a pass and line up exactly one more
+    private void pass(long frameTimeNanos) {
+        cancelPasses();
+        long wait = mLoop.onLoopPass(frameTimeNanos);
+        if (wait == NEXT_FRAME) {
+            mChoreographer.postFrameCallback(mFrame);
+        } else {
+            // Handlers only go to the millisecond. Round up, waking
+            // early would just run a pass with nothing to do
+            mHandler.postAtTime(mPass, SystemClock.uptimeMillis()
+                    + TimeUnit.NANOSECONDS.toMillis(wait + 999_999));
+        }
+    }
+
+    private void cancelPasses() {
+        mHandler.removeCallbacks(mPass);
+        mChoreographer.removeFrameCallback(mFrame);
+    }
+
+    // Run the task on the game thread after whatever was posted before
+    // it and block until it is done. If the game thread is stuck the
+    // caller gives up rather than hang the UI thread
+    private void runAndWait(final Runnable task) {
+        if (Thread.currentThread() == mThread) {
+            task.run();
+            return;
+        }
+        final CountDownLatch done = new CountDownLatch(1);
+        boolean posted = mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                task.run();
+                done.countDown();
+            }
+        });
+        if (!posted) {
+            // The thread has already quit
+            return;
+        }
+        try {
+            if (!done.await(WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                Log.w(TAG, mThread.getName() + " didn't pause in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.csc133.snakegame;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.opengl.EGL14;
+import android.opengl.EGLConfig;
+import android.opengl.EGLContext;
+import android.opengl.EGLDisplay;
+import android.opengl.EGLSurface;
+import android.opengl.GLES20;
+import android.opengl.GLUtils;
+import android.util.Log;
+import android.view.SurfaceHolder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+// Draws frames with OpenGL ES 2 instead of a software Canvas.
+// Every sprite is a textured quad in one vertex buffer and the whole
+// board goes to the GPU in one glDrawElements call. The background
+// and the text are still drawn with a Canvas, into bitmaps that are
+// only uploaded as textures when they change.
+// EGL is set up on the first frame so the context belongs to the
+// game thread, which keeps it the only thread that reads the game
+class GlRenderer implements Renderer {
+
+    private static final String TAG = "GlRenderer";
+
+    // Positions and texture coordinates come in as pixels,
+    // the same numbers the Canvas renderer is given
+    private static final String VERTEX_SHADER =
+            "uniform vec2 uScreen;\n"
+            + "uniform vec2 uTexSize;\n"
+            + "attribute vec2 aPos;\n"
+            + "attribute vec2 aTex;\n"
+            + "varying vec2 vTex;\n"
+            + "void main() {\n"
+            + "    gl_Position = vec4(aPos.x / uScreen.x * 2.0 - 1.0,\n"
+            + "            1.0 - aPos.y / uScreen.y * 2.0, 0.0, 1.0);\n"
+            + "    vTex = aTex / uTexSize;\n"
+            + "}\n";
+
+    // mediump isn't precise enough to pick single texels
+    // out of a screen sized texture, so use highp if we can
+    private static final String FRAGMENT_SHADER =
+            "#ifdef GL_FRAGMENT_PRECISION_HIGH\n"
+            + "precision highp float;\n"
+            + "#else\n"
+            + "precision mediump float;\n"
+            + "#endif\n"
+            + "uniform sampler2D uTexture;\n"
+            + "varying vec2 vTex;\n"
+            + "void main() {\n"
+            + "    gl_FragColor = texture2D(uTexture, vTex);\n"
+            + "}\n";
+
+    // Each corner is x, y, u, v
+    private static final int FLOATS_PER_QUAD = 16;
+    private static final int BYTES_PER_QUAD = FLOATS_PER_QUAD * 4;
+    private static final int STRIDE = 16;
+
+    // Indices are shorts so one call can draw at most this many quads
+    private static final int MAX_QUADS_PER_CALL = Short.MAX_VALUE / 4;
+
+    // Where frames go. With no holder they go to an offscreen
+    // buffer this size instead, which tests can read back
+    private final SurfaceHolder mHolder;
+    private final int mOffscreenWidth;
+    private final int mOffscreenHeight;
+
+    private final SpriteAtlas mAtlas;
+
+    // Quad 0 covers the screen, for the background and the overlay.
+    // The sprites follow it
+    private final int mQuadCapacity;
+    private final FloatBuffer mVertexData;
+
+    private EGLDisplay mDisplay = EGL14.EGL_NO_DISPLAY;
+    private EGLContext mContext = EGL14.EGL_NO_CONTEXT;
+    private EGLSurface mSurface = EGL14.EGL_NO_SURFACE;
+    private int mWidth;
+    private int mHeight;
+    private final int[] mSurfaceSize = new int[2];
+
+    private int mProgram;
+    private int mPosAttrib;
+    private int mTexAttrib;
+    private int mScreenUniform;
+    private int mTexSizeUniform;
+    private final int[] mTextures = new int[3];
+    private final int[] mBuffers = new int[2];
+
+    // What is in the layer texture, so it is only uploaded again
+    // when the static layer is rebuilt
+    private Bitmap mUploadedLayer;
+    private int mUploadedLayerGeneration;
+
+    // The overlay is drawn into this and uploaded when it changes
+    private Bitmap mOverlay;
+    private Canvas mOverlayCanvas;
+    private boolean mOverlayUploaded;
+
+    GlRenderer(SurfaceHolder holder, SpriteAtlas atlas, int maxSprites) {
+        this(holder, 0, 0, atlas, maxSprites);
+    }
+
+    // Draw frames offscreen, read them back with readPixels
+    GlRenderer(int width, int height, SpriteAtlas atlas, int maxSprites) {
+        this(null, width, height, atlas, maxSprites);
+    }
+
+    private GlRenderer(SurfaceHolder holder, int width, int height,
+                       SpriteAtlas atlas, int maxSprites) {
+        mHolder = holder;
+        mOffscreenWidth = width;
+        mOffscreenHeight = height;
+        mAtlas = atlas;
+        mQuadCapacity = maxSprites + 1;
+        mVertexData = ByteBuffer.allocateDirect(mQuadCapacity * BYTES_PER_QUAD)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    @Override
+    public boolean begin(Rect dirty) {
+        // The whole frame is drawn every time so dirty isn't needed
+        if (mHolder != null && !mHolder.getSurface().isValid()) {
+            return false;
+        }
+        if (mSurface == EGL14.EGL_NO_SURFACE && !setUp()) {
+            release();
+            return false;
+        }
+        if (!EGL14.eglMakeCurrent(mDisplay, mSurface, mSurface, mContext)) {
+            Log.w(TAG, "eglMakeCurrent failed: " + EGL14.eglGetError());
+            release();
+            return false;
+        }
+
+        EGL14.eglQuerySurface(mDisplay, mSurface, EGL14.EGL_WIDTH, mSurfaceSize, 0);
+        EGL14.eglQuerySurface(mDisplay, mSurface, EGL14.EGL_HEIGHT, mSurfaceSize, 1);
+        if (mSurfaceSize[0] != mWidth || mSurfaceSize[1] != mHeight) {
+            resize(mSurfaceSize[0], mSurfaceSize[1]);
+        }
+
+        GLES20.glViewport(0, 0, mWidth, mHeight);
+        GLES20.glClearColor(0f, 0f, 0f, 1f);
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+        GLES20.glUseProgram(mProgram);
+        GLES20.glUniform2f(mScreenUniform, mWidth, mHeight);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mBuffers[0]);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, mBuffers[1]);
+        return true;
+    }
+
+    @Override
+    public void drawStatic(StaticLayer layer, boolean cached) {
+        // Always drawn from the layer's bitmap, drawing it from
+        // scratch would mean uploading a new texture every frame
+        Bitmap bitmap = layer.getBitmap(mWidth, mHeight);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[1]);
+        if (bitmap != mUploadedLayer || bitmap.getGenerationId() != mUploadedLayerGeneration) {
+            GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, bitmap, 0);
+            mUploadedLayer = bitmap;
+            mUploadedLayerGeneration = bitmap.getGenerationId();
+        }
+        // The background is opaque, nothing to blend with
+        GLES20.glDisable(GLES20.GL_BLEND);
+        drawQuads(0, 1, mWidth, mHeight);
+    }
+
+    @Override
+    public void drawSprites(SpriteBatch batch) {
+        int count = Math.min(batch.size(), mQuadCapacity - 1);
+        if (count > 0) {
+            // Interleave the batch's corners and texture
+            // coordinates into the sprite part of the buffer
+            float[] verts = batch.getVertices();
+            float[] texs = batch.getTexCoords();
+            mVertexData.clear();
+            for (int i = 0; i < count * 8; i += 2) {
+                mVertexData.put(verts[i]).put(verts[i + 1])
+                        .put(texs[i]).put(texs[i + 1]);
+            }
+            mVertexData.position(0);
+            GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, BYTES_PER_QUAD,
+                    count * BYTES_PER_QUAD, mVertexData);
+
+            // Bitmaps are uploaded premultiplied, blend the same
+            // way Canvas does
+            GLES20.glEnable(GLES20.GL_BLEND);
+            GLES20.glBlendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[0]);
+            Bitmap atlas = mAtlas.getBitmap();
+            for (int first = 0; first < count; first += MAX_QUADS_PER_CALL) {
+                drawQuads(1 + first, Math.min(MAX_QUADS_PER_CALL, count - first),
+                        atlas.getWidth(), atlas.getHeight());
+            }
+        }
+        batch.clear();
+    }
+
+    @Override
+    public void drawOverlay(Overlay overlay, boolean changed) {
+        if (mOverlay == null || mOverlay.getWidth() != mWidth
+                || mOverlay.getHeight() != mHeight) {
+            if (mOverlay != null) {
+                mOverlay.recycle();
+            }
+            mOverlay = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+            mOverlayCanvas = new Canvas(mOverlay);
+            mOverlayUploaded = false;
+        }
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[2]);
+        if (changed || !mOverlayUploaded) {
+            mOverlay.eraseColor(Color.TRANSPARENT);
+            overlay.draw(mOverlayCanvas);
+            GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, mOverlay, 0);
+            mOverlayUploaded = true;
+        }
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        drawQuads(0, 1, mWidth, mHeight);
+    }
+
+    @Override
+    public void end() {
+        if (mHolder == null) {
+            GLES20.glFinish();
+            return;
+        }
+        if (!EGL14.eglSwapBuffers(mDisplay, mSurface)) {
+            // Usually the window went away under us.
+            // Start again from scratch on the next frame
+            Log.w(TAG, "eglSwapBuffers failed: " + EGL14.eglGetError());
+            release();
+        }
+    }
+
+    @Override
+    public void release() {
+        if (mDisplay != EGL14.EGL_NO_DISPLAY) {
+            // Destroying the context frees the textures,
+            // buffers and program along with it
+            EGL14.eglMakeCurrent(mDisplay, EGL14.EGL_NO_SURFACE,
+                    EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_CONTEXT);
+            if (mSurface != EGL14.EGL_NO_SURFACE) {
+                EGL14.eglDestroySurface(mDisplay, mSurface);
+            }
+            if (mContext != EGL14.EGL_NO_CONTEXT) {
+                EGL14.eglDestroyContext(mDisplay, mContext);
+            }
+            EGL14.eglReleaseThread();
+        }
+        mDisplay = EGL14.EGL_NO_DISPLAY;
+        mContext = EGL14.EGL_NO_CONTEXT;
+        mSurface = EGL14.EGL_NO_SURFACE;
+        mWidth = 0;
+        mHeight = 0;
+        mUploadedLayer = null;
+        mOverlayUploaded = false;
+    }
+
+    // Copy the last frame into a bitmap the size of the surface.
+    // Only meant for tests, it allocates
+    void readPixels(Bitmap out) {
+        ByteBuffer pixels = ByteBuffer.allocateDirect(mWidth * mHeight * 4);
+        GLES20.glReadPixels(0, 0, mWidth, mHeight,
+                GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, pixels);
+
+        // GL rows go bottom up, bitmap rows go top down
+        int rowBytes = mWidth * 4;
+        byte[] rows = new byte[rowBytes * mHeight];
+        pixels.get(rows);
+        byte[] flipped = new byte[rows.length];
+        for (int y = 0; y < mHeight; y++) {
+            System.arraycopy(rows, y * rowBytes, flipped, (mHeight - 1 - y) * rowBytes, rowBytes);
+        }
+        out.copyPixelsFromBuffer(ByteBuffer.wrap(flipped));
+    }
+
+    // Make the context, the surface and everything drawn with them
+    private boolean setUp() {
+        mDisplay = EGL14.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+        int[] version = new int[2];
+        if (mDisplay == EGL14.EGL_NO_DISPLAY
+                || !EGL14.eglInitialize(mDisplay, version, 0, version, 1)) {
+            Log.w(TAG, "No EGL display");
+            return false;
+        }
+
+        int surfaceType = mHolder != null ? EGL14.EGL_WINDOW_BIT : EGL14.EGL_PBUFFER_BIT;
+        int[] configAttribs = {
+                EGL14.EGL_RED_SIZE, 8,
+                EGL14.EGL_GREEN_SIZE, 8,
+                EGL14.EGL_BLUE_SIZE, 8,
+                EGL14.EGL_RENDERABLE_TYPE, EGL14.EGL_OPENGL_ES2_BIT,
+                EGL14.EGL_SURFACE_TYPE, surfaceType,
+                EGL14.EGL_NONE
+        };
+        EGLConfig[] configs = new EGLConfig[1];
+        int[] count = new int[1];
+        if (!EGL14.eglChooseConfig(mDisplay, configAttribs, 0, configs, 0, 1, count, 0)
+                || count[0] == 0) {
+            Log.w(TAG, "No EGL config for GLES 2");
+            return false;
+        }
+
+        int[] contextAttribs = {EGL14.EGL_CONTEXT_CLIENT_VERSION, 2, EGL14.EGL_NONE};
+        mContext = EGL14.eglCreateContext(mDisplay, configs[0],
+                EGL14.EGL_NO_CONTEXT, contextAttribs, 0);
+        if (mContext == EGL14.EGL_NO_CONTEXT) {
+            Log.w(TAG, "eglCreateContext failed: " + EGL14.eglGetError());
+            return false;
+        }
+
+        if (mHolder != null) {
+            mSurface = EGL14.eglCreateWindowSurface(mDisplay, configs[0],
+                    mHolder.getSurface(), new int[]{EGL14.EGL_NONE}, 0);
+        } else {
+            int[] pbufferAttribs = {
+                    EGL14.EGL_WIDTH, mOffscreenWidth,
+                    EGL14.EGL_HEIGHT, mOffscreenHeight,
+                    EGL14.EGL_NONE
+            };
+            mSurface = EGL14.eglCreatePbufferSurface(mDisplay, configs[0], pbufferAttribs, 0);
+        }
+        if (mSurface == EGL14.EGL_NO_SURFACE
+                || !EGL14.eglMakeCurrent(mDisplay, mSurface, mSurface, mContext)) {
+            Log.w(TAG, "Couldn't make an EGL surface: " + EGL14.eglGetError());
+            return false;
+        }
+
+        mProgram = buildProgram();
+        if (mProgram == 0) {
+            return false;
+        }
+        mPosAttrib = GLES20.glGetAttribLocation(mProgram, "aPos");
+        mTexAttrib = GLES20.glGetAttribLocation(mProgram, "aTex");
+        mScreenUniform = GLES20.glGetUniformLocation(mProgram, "uScreen");
+        mTexSizeUniform = GLES20.glGetUniformLocation(mProgram, "uTexSize");
+        GLES20.glUseProgram(mProgram);
+        GLES20.glUniform1i(GLES20.glGetUniformLocation(mProgram, "uTexture"), 0);
+
+        // Atlas, static layer and overlay. Sprites are drawn pixel
+        // for pixel so there is no filtering, same as the Canvas
+        GLES20.glGenTextures(mTextures.length, mTextures, 0);
+        for (int texture : mTextures) {
+            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+                    GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_NEAREST);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+                    GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_NEAREST);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+                    GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+                    GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        }
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[0]);
+        GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, mAtlas.getBitmap(), 0);
+
+        // One vertex buffer for every quad, and the indices for
+        // as many quads as one call can draw
+        GLES20.glGenBuffers(mBuffers.length, mBuffers, 0);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mBuffers[0]);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, mQuadCapacity * BYTES_PER_QUAD,
+                null, GLES20.GL_DYNAMIC_DRAW);
+
+        int quads = Math.min(mQuadCapacity, MAX_QUADS_PER_CALL);
+        ShortBuffer indices = ByteBuffer.allocateDirect(quads * 12)
+                .order(ByteOrder.nativeOrder()).asShortBuffer();
+        for (int i = 0; i < quads; i++) {
+            // The same two triangles SpriteBatch uses
+            short corner = (short) (i * 4);
+            indices.put(corner).put((short) (corner + 1)).put((short) (corner + 2))
+                    .put((short) (corner + 2)).put((short) (corner + 3)).put(corner);
+        }
+        indices.position(0);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, mBuffers[1]);
+        GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, quads * 12,
+                indices, GLES20.GL_STATIC_DRAW);
+
+        GLES20.glEnableVertexAttribArray(mPosAttrib);
+        GLES20.glEnableVertexAttribArray(mTexAttrib);
+        return true;
+    }
+
+    // The surface is a new size. Quad 0 covers all of it
+    private void resize(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mVertexData.clear();
+        mVertexData.put(0f).put(0f).put(0f).put(0f);
+        mVertexData.put(width).put(0f).put(width).put(0f);
+        mVertexData.put(width).put(height).put(width).put(height);
+        mVertexData.put(0f).put(height).put(0f).put(height);
+        mVertexData.position(0);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mBuffers[0]);
+        GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, BYTES_PER_QUAD, mVertexData);
+    }
+
+    // Draw count quads starting at first with the bound texture,
+    // which is texWidth by texHeight pixels
+    private void drawQuads(int first, int count, int texWidth, int texHeight) {
+        GLES20.glUniform2f(mTexSizeUniform, texWidth, texHeight);
+        int offset = first * BYTES_PER_QUAD;
+        GLES20.glVertexAttribPointer(mPosAttrib, 2, GLES20.GL_FLOAT, false, STRIDE, offset);
+        GLES20.glVertexAttribPointer(mTexAttrib, 2, GLES20.GL_FLOAT, false, STRIDE, offset + 8);
+        GLES20.glDrawElements(GLES20.GL_TRIANGLES, count * 6, GLES20.GL_UNSIGNED_SHORT, 0);
+    }
+
+    private static int buildProgram() {
+        int vertex = compile(GLES20.GL_VERTEX_SHADER, VERTEX_SHADER);
+        int fragment = compile(GLES20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+        if (vertex == 0 || fragment == 0) {
+            return 0;
+        }
+        int program = GLES20.glCreateProgram();
+        GLES20.glAttachShader(program, vertex);
+        GLES20.glAttachShader(program, fragment);
+        GLES20.glLinkProgram(program);
+        int[] linked = new int[1];
+        GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, linked, 0);
+        if (linked[0] == 0) {
+            Log.w(TAG, "Link failed: " + GLES20.glGetProgramInfoLog(program));
+            GLES20.glDeleteProgram(program);
+            return 0;
+        }
+        return program;
+    }
+
+    private static int compile(int type, String source) {
+        int shader = GLES20.glCreateShader(type);
+        GLES20.glShaderSource(shader, source);
+        GLES20.glCompileShader(shader);
+        int[] compiled = new int[1];
+        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compiled, 0);
+        if (compiled[0] == 0) {
+            Log.w(TAG, "Compile failed: " + GLES20.glGetShaderInfoLog(shader));
+            GLES20.glDeleteShader(shader);
+            return 0;
+        }
+        return shader;
+    }
+}
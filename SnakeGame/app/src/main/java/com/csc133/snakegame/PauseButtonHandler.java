@@ -39,4 +39,10 @@ public class PauseButtonHandler implements View.OnClickListener {
         isPaused = false;
     }
 
+    // The game was paused for it, like when the app went to the background
+    public void showPaused() {
+        pauseButton.setText("Resume");
+        isPaused = true;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,251 @@
+package com.csc133.snakegame;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Debug;
+import android.util.Log;
+
+import com.csc133.snakegame.core.FrameScheduler;
+import com.csc133.snakegame.core.LatencyHistogram;
+import com.csc133.snakegame.core.TurnBuffer;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Where the game loop's time goes. The loop records how long each
+// tick, draw, lock and post took into fixed bucket histograms, which
+// costs a nanoTime call and an array increment each. Pacing jitter is
+// how far each gap between frames of the moving snake was from the
+// frame interval, for comparing vsync pacing with running free.
+// Input latency is from the touch or key event to the tick that
+// turned the snake because of it, and photon latency on to the first
+// frame showing the turn being handed to the display. The compositor
+// puts that up on the vsync after, so add about a frame for the glass.
+// The numbers can be drawn over the game as a HUD, and are dumped to
+// logcat and a file whenever the game pauses, the writing done on
+// another thread so it doesn't hold up the loop.
+// Only touched by the game thread, or once it has stopped, apart
+// from the count of commands the queue had no room for
+class PerfStats {
+
+    private static final String TAG = "PerfStats";
+
+    // How often the HUD text is worked out again
+    private static final long HUD_REFRESH_NANOS = 500_000_000L;
+
+    private final FrameScheduler mScheduler;
+    // Its count of turns that couldn't be used goes in the summary
+    private final TurnBuffer mTurns;
+
+    // update(), the whole of draw(), waiting for the surface
+    // in begin(), handing the frame over in end(), the gap
+    // between one frame reaching the screen and the next, and
+    // how far that gap was from what it should have been
+    private final LatencyHistogram mTick = new LatencyHistogram();
+    private final LatencyHistogram mDraw = new LatencyHistogram();
+    private final LatencyHistogram mLock = new LatencyHistogram();
+    private final LatencyHistogram mPost = new LatencyHistogram();
+    private final LatencyHistogram mFrame = new LatencyHistogram();
+    private final LatencyHistogram mJitter = new LatencyHistogram();
+    private final LatencyHistogram mInput = new LatencyHistogram();
+    private final LatencyHistogram mPhoton = new LatencyHistogram();
+    private long mLastFrameTime;
+    // "vsync" or "free", how the frames being timed were paced
+    private String mPacing = "vsync";
+    // Commands from the UI thread dropped because the queue was full
+    private final AtomicLong mDroppedCommands = new AtomicLong();
+
+    // The HUD is built into these so drawing it doesn't allocate
+    private final StringBuilder mBuilder = new StringBuilder(64);
+    private final char[][] mHudLines = new char[3][64];
+    private final int[] mHudLengths = new int[3];
+    private long mHudTime;
+    private long mHudFrames;
+
+    PerfStats(FrameScheduler scheduler, TurnBuffer turns) {
+        mScheduler = scheduler;
+        mTurns = turns;
+    }
+
+    void recordTick(long nanos) {
+        mTick.record(nanos);
+    }
+
+    void recordLock(long nanos) {
+        mLock.record(nanos);
+    }
+
+    void recordPost(long nanos) {
+        mPost.record(nanos);
+    }
+
+    void recordInput(long nanos) {
+        mInput.record(nanos);
+    }
+
+    void recordPhoton(long nanos) {
+        mPhoton.record(nanos);
+    }
+
+    // From any thread
+    void recordDroppedCommand() {
+        mDroppedCommands.incrementAndGet();
+    }
+
+    void setPacing(String pacing) {
+        mPacing = pacing;
+    }
+
+    // A frame has gone to the screen, draw() took nanos. Only the
+    // gaps between frames of the snake moving are frame times,
+    // others are just redrawn when something changes
+    void recordFrame(long nanos, long now, boolean animating) {
+        mDraw.record(nanos);
+        // A long gap after a pause isn't a slow frame
+        if (mLastFrameTime != 0 && now - mLastFrameTime < HUD_REFRESH_NANOS) {
+            long interval = now - mLastFrameTime;
+            mFrame.record(interval);
+            mJitter.record(Math.abs(interval - mScheduler.getFrameNanos()));
+        }
+        mLastFrameTime = animating ? now : 0;
+    }
+
+    // Work out the HUD text again if it is time to.
+    // Returns true if it changed and needs drawing
+    boolean updateHud(long now) {
+        if (mHudTime != 0 && now - mHudTime < HUD_REFRESH_NANOS) {
+            return false;
+        }
+        long frames = mDraw.getCount() - mHudFrames;
+        long fps = mHudTime == 0 ? 0 : frames * 1_000_000_000L / (now - mHudTime);
+        mHudTime = now;
+        mHudFrames = mDraw.getCount();
+
+        StringBuilder line = mBuilder;
+        line.setLength(0);
+        line.append("FPS ").append(fps).append("  frame p50 ");
+        appendMillis(line, mFrame.valueAtPercentile(50));
+        line.append(" p99 ");
+        appendMillis(line, mFrame.valueAtPercentile(99));
+        line.append("ms  jitter p99 ");
+        appendMillis(line, mJitter.valueAtPercentile(99));
+        line.append("ms");
+        setHudLine(0, line);
+
+        line.setLength(0);
+        line.append("draw p50 ");
+        appendMillis(line, mDraw.valueAtPercentile(50));
+        line.append(" p99 ");
+        appendMillis(line, mDraw.valueAtPercentile(99));
+        line.append("ms  tick p99 ").append(mTick.valueAtPercentile(99) / 1000)
+                .append("us  input p99 ");
+        appendMillis(line, mInput.valueAtPercentile(99));
+        line.append("ms");
+        setHudLine(1, line);
+
+        line.setLength(0);
+        line.append(mPacing).append("  late ").append(mScheduler.getLateTicks())
+                .append("  dropped ").append(mScheduler.getDroppedTicks())
+                .append("  GC ").append(gcCount()).append("  photon p99 ");
+        appendMillis(line, mPhoton.valueAtPercentile(99));
+        line.append("ms");
+        setHudLine(2, line);
+        return true;
+    }
+
+    // Draw the HUD lines starting at top, in whatever the paint is set to
+    void drawHud(Canvas canvas, Paint paint, float left, float top) {
+        float lineHeight = paint.getTextSize() * 1.4f;
+        for (int i = 0; i < mHudLines.length; i++) {
+            canvas.drawText(mHudLines[i], 0, mHudLengths[i],
+                    left, top + lineHeight * (i + 1), paint);
+        }
+    }
+
+    // Sum up everything recorded since the last time, then start
+    // counting again. Pass the result to write() off the game thread
+    String takeSummary() {
+        String summary = summary();
+        mTick.reset();
+        mDraw.reset();
+        mLock.reset();
+        mPost.reset();
+        mFrame.reset();
+        mJitter.reset();
+        mInput.reset();
+        mPhoton.reset();
+        mLastFrameTime = 0;
+        mHudTime = 0;
+        mHudFrames = 0;
+        return summary;
+    }
+
+    // Log a summary and write it to the file. From any thread
+    static void write(String summary, File file) {
+        for (String line : summary.split("\n")) {
+            Log.i(TAG, line);
+        }
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(summary);
+        } catch (IOException e) {
+            Log.w(TAG, "Couldn't write " + file, e);
+        }
+    }
+
+    String summary() {
+        StringBuilder summary = new StringBuilder();
+        summarise(summary, "tick", mTick);
+        summarise(summary, "draw", mDraw);
+        summarise(summary, "lock", mLock);
+        summarise(summary, "post", mPost);
+        summarise(summary, "frame", mFrame);
+        summarise(summary, "jitter", mJitter);
+        summarise(summary, "input", mInput);
+        summarise(summary, "photon", mPhoton);
+        summary.append("pacing ").append(mPacing)
+                .append(", late ticks ").append(mScheduler.getLateTicks())
+                .append(", dropped ticks ").append(mScheduler.getDroppedTicks())
+                .append(", dropped commands ").append(mDroppedCommands.get())
+                .append(", dropped turns ").append(mTurns.getDroppedCount())
+                .append(", GCs ").append(gcCount()).append('\n');
+        return summary.toString();
+    }
+
+    private static void summarise(StringBuilder out, String name, LatencyHistogram histogram) {
+        out.append(name).append(": n=").append(histogram.getCount())
+                .append(" mean=").append(histogram.getMean() / 1000)
+                .append("us p50=").append(histogram.valueAtPercentile(50) / 1000)
+                .append("us p90=").append(histogram.valueAtPercentile(90) / 1000)
+                .append("us p99=").append(histogram.valueAtPercentile(99) / 1000)
+                .append("us max=").append(histogram.getMax() / 1000)
+                .append("us\n");
+    }
+
+    private void setHudLine(int i, StringBuilder line) {
+        int length = Math.min(line.length(), mHudLines[i].length);
+        line.getChars(0, length, mHudLines[i], 0);
+        mHudLengths[i] = length;
+    }
+
+    // Milliseconds to one decimal place, without going through a double
+    private static void appendMillis(StringBuilder out, long nanos) {
+        long tenths = nanos / 100_000;
+        out.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    // How many times the garbage collector has run in this process
+    private static long gcCount() {
+        String count = Debug.getRuntimeStat("art.gc.gc-count");
+        if (count == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(count);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
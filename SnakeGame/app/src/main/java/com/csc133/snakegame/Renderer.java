@@ -0,0 +1,39 @@
+package com.csc133.snakegame;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+// Puts a frame on the screen. SnakeGame decides what goes in the
+// frame and the renderer decides how it gets drawn, with a Canvas
+// or with OpenGL. Everything is called on the game thread, in order:
+// begin, drawStatic, drawSprites, drawOverlay, end
+interface Renderer {
+
+    // Start a frame. dirty is the part of the screen that changed,
+    // or null if all of it did. A renderer may redraw more than that.
+    // Returns false if there is nowhere to draw right now
+    boolean begin(Rect dirty);
+
+    // The background and names. cached is false to draw them from
+    // scratch instead of from the layer's bitmap
+    void drawStatic(StaticLayer layer, boolean cached);
+
+    // Everything queued in the batch, which is then emptied
+    void drawSprites(SpriteBatch batch);
+
+    // The text on top of everything. changed is false when the
+    // overlay looks the same as it did in the last frame
+    void drawOverlay(Overlay overlay, boolean changed);
+
+    // Put the finished frame on the screen
+    void end();
+
+    // Let go of anything tied to the surface or the game thread.
+    // The renderer sets itself up again on the next begin
+    void release();
+
+    // Anything that is simplest to draw with a Canvas, like text
+    interface Overlay {
+        void draw(Canvas canvas);
+    }
+}
@@ -0,0 +1,55 @@
+package com.csc133.snakegame;
+
+// The "Score: 12" text kept in a reusable char buffer.
+// Building it with string concatenation made a new String every
+// frame, this only rewrites the digits when the score changes
+class ScoreText {
+
+    private static final String PREFIX = "Score: ";
+
+    // Room for the prefix and any int
+    private final char[] mChars = new char[PREFIX.length() + 11];
+    private int mLength;
+    private int mScore;
+
+    ScoreText() {
+        PREFIX.getChars(0, PREFIX.length(), mChars, 0);
+        write(0);
+    }
+
+    // Update the text for this score
+    void set(int score) {
+        if (score != mScore) {
+            write(score);
+        }
+    }
+
+    char[] getChars() {
+        return mChars;
+    }
+
+    int length() {
+        return mLength;
+    }
+
+    private void write(int score) {
+        mScore = score;
+        int end = PREFIX.length();
+        long value = score;
+        if (value < 0) {
+            mChars[end++] = '-';
+            value = -value;
+        }
+
+        // Count the digits then fill them in from the right
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = end + digits - 1; i >= end; i--) {
+            mChars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        mLength = end + digits;
+    }
+}
@@ -1,325 +1,141 @@
 package com.csc133.snakegame;
 
-import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
-import android.graphics.Matrix;
-import android.graphics.Paint;
 import android.graphics.Point;
 import android.view.MotionEvent;
 
-import java.util.ArrayList;
+import com.csc133.snakegame.core.SnakeBody;
+import com.csc133.snakegame.core.SnakeModel;
 
+// Draws the snake described by a SnakeModel.
+// All of the moving, growing and dying happens in the model
 class Snake implements DrawableMovable{
 
-    // The location in the grid of all the segments
-    private ArrayList<Point> segmentLocations;
+    // Where the snake is and where it is heading
+    private final SnakeModel mModel;
+
+    // Handed out by getLocation so callers get the head
+    // without a new Point being made every time
+    private final Point mHeadLocation = new Point();
 
     // How big is each segment of the snake?
     private int mSegmentSize;
 
-    // How big is the entire grid
-    private Point mMoveRange;
-
     // Where is the centre of the screen
     // horizontally in pixels?
     private int halfWayPoint;
 
-    // For tracking movement Heading
-    private enum Heading {
-        UP, RIGHT, DOWN, LEFT
-    }
-
-    // Start by heading to the right
-    private Heading heading = Heading.RIGHT;
-
-    // A bitmap for each direction the head can face
-    private Bitmap mBitmapHeadRight;
-    private Bitmap mBitmapHeadLeft;
-    private Bitmap mBitmapHeadUp;
-    private Bitmap mBitmapHeadDown;
-
-    // A bitmap for the body
-    private Bitmap mBitmapBody;
-
-
-    Snake(Context context, Point mr, int ss) {
-
-        // Initialize our ArrayList
-        segmentLocations = new ArrayList<>();
-
-        // Initialize the segment size and movement
-        // range from the passed in parameters
-        mSegmentSize = ss;
-        mMoveRange = mr;
-
-        // Create and scale the bitmaps
-        mBitmapHeadRight = BitmapFactory
-                .decodeResource(context.getResources(),
-                        R.drawable.head);
-
-        // Create 3 more versions of the head for different headings
-        mBitmapHeadLeft = BitmapFactory
-                .decodeResource(context.getResources(),
-                        R.drawable.head);
-
-        mBitmapHeadUp = BitmapFactory
-                .decodeResource(context.getResources(),
-                        R.drawable.head);
-
-        mBitmapHeadDown = BitmapFactory
-                .decodeResource(context.getResources(),
-                        R.drawable.head);
-
-        // Modify the bitmaps to face the snake head
-        // in the correct direction
-        mBitmapHeadRight = Bitmap
-                .createScaledBitmap(mBitmapHeadRight,
-                        ss, ss, false);
-
-        // A matrix for scaling
-        Matrix matrix = new Matrix();
-        matrix.preScale(-1, 1);
-
-        mBitmapHeadLeft = Bitmap
-                .createBitmap(mBitmapHeadRight,
-                        0, 0, ss, ss, matrix, true);
+    // Where the sprites are queued to be drawn
+    private final SpriteBatch mBatch;
 
-        // A matrix for rotating
-        matrix.preRotate(-90);
-        mBitmapHeadUp = Bitmap
-                .createBitmap(mBitmapHeadRight,
-                        0, 0, ss, ss, matrix, true);
 
-        // Matrix operations are cumulative
-        // so rotate by 180 to face down
-        matrix.preRotate(180);
-        mBitmapHeadDown = Bitmap
-                .createBitmap(mBitmapHeadRight,
-                        0, 0, ss, ss, matrix, true);
+    Snake(SnakeModel model, SpriteAtlas atlas, SpriteBatch batch) {
 
-        // Create and scale the body
-        mBitmapBody = BitmapFactory
-                .decodeResource(context.getResources(),
-                        R.drawable.body);
+        mModel = model;
+        mBatch = batch;
 
-        mBitmapBody = Bitmap
-                .createScaledBitmap(mBitmapBody,
-                        ss, ss, false);
+        // Every segment is one sprite in size
+        mSegmentSize = atlas.getSize();
 
         // The halfway point across the screen in pixels
         // Used to detect which side of screen was pressed
-        halfWayPoint = mr.x * ss / 2;
+        halfWayPoint = model.getBody().getWidth() * mSegmentSize / 2;
     }
 
     @Override
     public void reset() {
         // Resetting the snake's state for a new game
-        segmentLocations.clear(); // Clear old segments
-        segmentLocations.add(new Point(mMoveRange.x / 2, mMoveRange.y / 2)); // Start in middle
-        heading = Heading.RIGHT; // Default direction
+        mModel.reset();
     }
 
-    // Get the snake ready for a new game
-    void reset(int w, int h) {
-
-        // Reset the heading
-        heading = Heading.RIGHT;
-
-        // Delete the old contents of the ArrayList
-        segmentLocations.clear();
-
-        // Start with a single snake segment
-        segmentLocations.add(new Point(w / 2, h / 2));
-    }
-
-
     public void move() {
-        if (segmentLocations.isEmpty()) {
-            // Nothing to move if there are no segments
-            return;
-        }
-        // Move the body
-        // Start at the back and move it
-        // to the position of the segment in front of it
-        for (int i = segmentLocations.size() - 1; i > 0; i--) {
-
-            // Make it the same value as the next segment
-            // going forwards towards the head
-            segmentLocations.get(i).x = segmentLocations.get(i - 1).x;
-            segmentLocations.get(i).y = segmentLocations.get(i - 1).y;
-        }
-
-        // Move the head in the appropriate heading
-        // Get the existing head position
-        Point p = segmentLocations.get(0);
-
-        // Move it appropriately
-        switch (heading) {
-            case UP:
-                p.y--;
-                break;
-
-            case RIGHT:
-                p.x++;
-                break;
-
-            case DOWN:
-                p.y++;
-                break;
-
-            case LEFT:
-                p.x--;
-                break;
-        }
-
-
+        mModel.move();
     }
 
-    boolean detectDeath() {
-        if (segmentLocations.isEmpty()) {
-            // Can't die if there are no segments
-            return false;
-        }
-        // Has the snake died?
-        boolean dead = false;
-
-        // Hit any of the screen edges
-        if (segmentLocations.get(0).x == -1 ||
-                segmentLocations.get(0).x > mMoveRange.x ||
-                segmentLocations.get(0).y == -1 ||
-                segmentLocations.get(0).y > mMoveRange.y) {
+    public void draw(Renderer renderer) {
+        // Draw exactly where the segments are
+        queue(mBatch, 1f);
+        renderer.drawSprites(mBatch);
+    }
 
-            dead = true;
-        }
+    // Queue the snake part way through its move.
+    // alpha is how far through the current tick we are, the head and
+    // tail slide from where they were towards where they are now
+    // while the rest of the body stays in its cells.
+    // Sprites are drawn in the order they are queued, so the head
+    // goes last to stay on top of the neck it is sliding out of.
+    // Nothing is drawn until the batch is, and then the whole snake
+    // goes in one call however long it is
+    void queue(SpriteBatch batch, float alpha) {
+        // Check if there are any segments to draw
+        if (!mModel.getBody().isEmpty()) {
+            SnakeBody body = mModel.getBody();
 
-        // Eaten itself?
-        for (int i = segmentLocations.size() - 1; i > 0; i--) {
-            // Have any of the sections collided with the head
-            if (segmentLocations.get(0).x == segmentLocations.get(i).x &&
-                    segmentLocations.get(0).y == segmentLocations.get(i).y) {
+            // Draw the snake body one block at a time
+            int last = body.length() - 1;
+            for (int i = 1; i < last; i++) {
+                int cell = body.cellAt(i);
+                batch.add(SpriteAtlas.BODY,
+                        body.cellX(cell) * mSegmentSize,
+                        body.cellY(cell) * mSegmentSize);
+            }
 
-                dead = true;
+            // Slide the tail out of the cell it just left. When the
+            // snake has just grown the tail didn't move so don't slide it
+            if (last > 0) {
+                int tail = body.tailCell();
+                float tailAlpha = isNextTo(body, mModel.getPrevTail(), tail) ? alpha : 1f;
+                batch.add(SpriteAtlas.BODY,
+                        lerp(body.cellX(mModel.getPrevTail()),
+                                body.cellX(tail), tailAlpha) * mSegmentSize,
+                        lerp(body.cellY(mModel.getPrevTail()),
+                                body.cellY(tail), tailAlpha) * mSegmentSize);
             }
-        }
-        return dead;
-    }
 
-    boolean checkDinner(Point l) {
-        if (segmentLocations.isEmpty()) {
-            // No head to check for dinner
-            return false;
+            // Draw the head
+            int head = body.headCell();
+            float headX = lerp(body.cellX(mModel.getPrevHead()),
+                    body.cellX(head), alpha) * mSegmentSize;
+            float headY = lerp(body.cellY(mModel.getPrevHead()),
+                    body.cellY(head), alpha) * mSegmentSize;
+            batch.add(headSprite(), headX, headY);
         }
-        //if (snakeXs[0] == l.x && snakeYs[0] == l.y) {
-        if (segmentLocations.get(0).x == l.x &&
-                segmentLocations.get(0).y == l.y) {
+    }
 
-            // Add a new Point to the list
-            // located off-screen.
-            // This is OK because on the next call to
-            // move it will take the position of
-            // the segment in front of it
-            segmentLocations.add(new Point(-10, -10));
-            return true;
+    // The head sprite facing the way the snake is going
+    private int headSprite() {
+        switch (mModel.getHeading()) {
+            case LEFT:
+                return SpriteAtlas.HEAD_LEFT;
+            case UP:
+                return SpriteAtlas.HEAD_UP;
+            case DOWN:
+                return SpriteAtlas.HEAD_DOWN;
+            default:
+                return SpriteAtlas.HEAD_RIGHT;
         }
-        return false;
     }
 
-    public void draw(Canvas canvas, Paint paint) {
-        // Check if there are any segments to draw
-        if (!segmentLocations.isEmpty()) {
-            // Existing drawing code...
-            // Draw the head
-            switch (heading) {
-                case RIGHT:
-                    canvas.drawBitmap(mBitmapHeadRight,
-                            segmentLocations.get(0).x
-                                    * mSegmentSize,
-                            segmentLocations.get(0).y
-                                    * mSegmentSize, paint);
-                    break;
-
-                case LEFT:
-                    canvas.drawBitmap(mBitmapHeadLeft,
-                            segmentLocations.get(0).x
-                                    * mSegmentSize,
-                            segmentLocations.get(0).y
-                                    * mSegmentSize, paint);
-                    break;
-
-                case UP:
-                    canvas.drawBitmap(mBitmapHeadUp,
-                            segmentLocations.get(0).x
-                                    * mSegmentSize,
-                            segmentLocations.get(0).y
-                                    * mSegmentSize, paint);
-                    break;
-
-                case DOWN:
-                    canvas.drawBitmap(mBitmapHeadDown,
-                            segmentLocations.get(0).x
-                                    * mSegmentSize,
-                            segmentLocations.get(0).y
-                                    * mSegmentSize, paint);
-                    break;
-            }
+    private static float lerp(int from, int to, float alpha) {
+        return from + (to - from) * alpha;
+    }
 
-            // Draw the snake body one block at a time
-            for (int i = 1; i < segmentLocations.size(); i++) {
-                canvas.drawBitmap(mBitmapBody,
-                        segmentLocations.get(i).x
-                                * mSegmentSize,
-                        segmentLocations.get(i).y
-                                * mSegmentSize, paint);
-            }
-        }
+    private static boolean isNextTo(SnakeBody body, int a, int b) {
+        return Math.abs(body.cellX(a) - body.cellX(b))
+                + Math.abs(body.cellY(a) - body.cellY(b)) == 1;
     }
 
 
     @Override
     public Point getLocation() {
         // Return the location of the snake's head
-        return segmentLocations.get(0);
+        SnakeBody body = mModel.getBody();
+        int head = body.headCell();
+        mHeadLocation.set(body.cellX(head), body.cellY(head));
+        return mHeadLocation;
     }
 
-    // Handle changing direction
-    void switchHeading(MotionEvent motionEvent) {
-
-        // Is the tap on the right hand side?
-        if (motionEvent.getX() >= halfWayPoint) {
-            switch (heading) {
-                // Rotate right
-                case UP:
-                    heading = Heading.RIGHT;
-                    break;
-                case RIGHT:
-                    heading = Heading.DOWN;
-                    break;
-                case DOWN:
-                    heading = Heading.LEFT;
-                    break;
-                case LEFT:
-                    heading = Heading.UP;
-                    break;
-
-            }
-        } else {
-            // Rotate left
-            switch (heading) {
-                case UP:
-                    heading = Heading.LEFT;
-                    break;
-                case LEFT:
-                    heading = Heading.DOWN;
-                    break;
-                case DOWN:
-                    heading = Heading.RIGHT;
-                    break;
-                case RIGHT:
-                    heading = Heading.UP;
-                    break;
-            }
-        }
+    // Is the tap on the right hand side?
+    boolean isRightSideTap(MotionEvent motionEvent) {
+        return motionEvent.getX() >= halfWayPoint;
     }
-}
\ No newline at end of file
+}
@@ -2,18 +2,46 @@ package com.csc133.snakegame;
 
 import android.app.Activity;
 import android.graphics.Point;
+import android.hardware.display.DisplayManager;
 import android.os.Bundle;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
 import android.view.Display;
 import android.view.Gravity;
+import android.view.KeyEvent;
 import android.widget.FrameLayout;
 import android.widget.LinearLayout;
 
 public class SnakeActivity extends Activity {
 
+    private static final String TAG = "SnakeActivity";
+
     // Declare an instance of SnakeGame
     SnakeGame mSnakeGame;
     PauseButtonHandler pauseButtonHandler;
 
+    // Follows the display switching refresh rate, like a
+    // 120Hz panel dropping to 60Hz to save power
+    private Display mDisplay;
+    private final DisplayManager.DisplayListener mDisplayListener =
+            new DisplayManager.DisplayListener() {
+        @Override
+        public void onDisplayChanged(int displayId) {
+            if (displayId == mDisplay.getDisplayId()) {
+                mSnakeGame.setRenderRate(Math.round(mDisplay.getRefreshRate()));
+            }
+        }
+
+        @Override
+        public void onDisplayAdded(int displayId) {
+        }
+
+        @Override
+        public void onDisplayRemoved(int displayId) {
+        }
+    };
+
 
 
     // Set the game up
@@ -26,13 +54,55 @@ public class SnakeActivity extends Activity {
 
         // Get the pixel dimensions of the screen
         Display display = getWindowManager().getDefaultDisplay();
+        mDisplay = display;
 
         // Initialize the result into a Point object
         Point size = new Point();
         display.getSize(size);
 
-        // Create a new instance of the SnakeEngine class
+        // Create a new instance of the SnakeEngine class.
+        // Time it and see what it added to the heap, the second time
+        // round most of the bitmaps should come from the sprite cache
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        long startHeap = usedHeapBytes();
         mSnakeGame = new SnakeGame(this, size);
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "game created in "
+                    + (SystemClock.elapsedRealtimeNanos() - startNanos) / 1000000 + "ms, heap +"
+                    + (usedHeapBytes() - startHeap) / 1024 + "KB, sprite cache "
+                    + SpriteCache.get().stats());
+        }
+
+        // Draw as often as the display refreshes so the snake
+        // slides smoothly on 60, 90 and 120Hz screens
+        mSnakeGame.setRenderRate(Math.round(display.getRefreshRate()));
+
+        // Start with --es pacing free to run the loop free instead of
+        // pacing frames by vsync, for comparing pacing jitter
+        mSnakeGame.setVsyncPacingEnabled(!"free".equals(getIntent().getStringExtra("pacing")));
+
+        // Start with --ez static_layer false to draw the background
+        // every frame, for comparing frame times
+        mSnakeGame.setStaticLayerEnabled(getIntent().getBooleanExtra("static_layer", true));
+
+        // Start with --es renderer gl to draw with OpenGL ES 2
+        // instead of a Canvas
+        mSnakeGame.setGlRendererEnabled("gl".equals(getIntent().getStringExtra("renderer")));
+
+        // Start with --ez autopilot true to watch the game play itself
+        mSnakeGame.setAutopilotEnabled(getIntent().getBooleanExtra("autopilot", false));
+
+        // Or --ez solver true to watch it fill the whole board
+        if (getIntent().getBooleanExtra("solver", false)) {
+            mSnakeGame.setSolverEnabled(true);
+        }
+
+        // Start with --es input swipe to swipe in the direction to go
+        // instead of tapping the left or right side to turn
+        mSnakeGame.setSwipeInputEnabled("swipe".equals(getIntent().getStringExtra("input")));
+
+        // Start with --ez perf_hud true to show frame times over the game
+        mSnakeGame.setPerfHudEnabled(getIntent().getBooleanExtra("perf_hud", false));
 
         // Initialize the pause button handler
         pauseButtonHandler = new PauseButtonHandler(this, mSnakeGame);
@@ -54,18 +124,49 @@ public class SnakeActivity extends Activity {
         setContentView(gameLayout);
     }
 
-    // Start the thread in snakeEngine
+    // Start or wake the thread in snakeEngine
     @Override
     protected void onResume() {
         super.onResume();
+        getSystemService(DisplayManager.class).registerDisplayListener(mDisplayListener, null);
+        // The rate may have changed while we weren't listening
+        mSnakeGame.setRenderRate(Math.round(mDisplay.getRefreshRate()));
         mSnakeGame.resume();
     }
 
-    // Stop the thread in snakeEngine
+    // Park the thread in snakeEngine, the game is kept
     @Override
     protected void onPause() {
         super.onPause();
+        getSystemService(DisplayManager.class).unregisterDisplayListener(mDisplayListener);
         mSnakeGame.pause();
     }
 
+    // Stop the thread in snakeEngine for good
+    @Override
+    protected void onDestroy() {
+        mSnakeGame.shutdown();
+        super.onDestroy();
+    }
+
+    // Arrow keys turn the snake rather than move focus to the button
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return mSnakeGame.onDirectionKey(event) || super.dispatchKeyEvent(event);
+    }
+
+    // Give back cached bitmaps when the system needs memory
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        SpriteCache.get().trimMemory(level);
+    }
+
+    // Java objects plus native allocations, which is where
+    // bitmap pixels live from Android 8 on
+    private static long usedHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory() + Debug.getNativeHeapAllocatedSize();
+    }
+
 }
\ No newline at end of file
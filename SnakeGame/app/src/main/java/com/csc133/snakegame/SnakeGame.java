@@ -1,27 +1,47 @@
 package com.csc133.snakegame;
 
 import android.content.Context;
-import android.content.res.AssetFileDescriptor;
-import android.content.res.AssetManager;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Point;
+import android.graphics.Rect;
 import android.media.AudioAttributes;
 import android.media.AudioManager;
 import android.media.SoundPool;
 import android.os.Build;
+import android.view.InputDevice;
+import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
+import android.view.ViewConfiguration;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Typeface;
 import android.app.Activity;
+import android.util.Log;
 
+import com.csc133.snakegame.core.Autopilot;
+import com.csc133.snakegame.core.CommandQueue;
+import com.csc133.snakegame.core.DirtyRegion;
+import com.csc133.snakegame.core.FrameScheduler;
+import com.csc133.snakegame.core.GameEngine;
+import com.csc133.snakegame.core.HamiltonianSolver;
+import com.csc133.snakegame.core.Heading;
+import com.csc133.snakegame.core.Pilot;
+import com.csc133.snakegame.core.ReplayRecorder;
+import com.csc133.snakegame.core.SnakeModel;
+import com.csc133.snakegame.core.TurnBuffer;
+import com.csc133.snakegame.core.VsyncClock;
 
-class SnakeGame extends SurfaceView implements Runnable, GameControls{
+
+class SnakeGame extends SurfaceView implements GameControls, SurfaceHolder.Callback {
 
 
     private static final int SCORE_TEXT_SIZE = 40;
@@ -29,17 +49,75 @@ class SnakeGame extends SurfaceView implements Runnable, GameControls{
     private static final int SCORE_MARGIN_TOP = 120;
     private Activity mActivity;
 
+    // Loaded in the background, null until they arrive
     private Typeface gameFont;
     private Bitmap mBackgroundBitmap;
-    // Objects for the game loop/thread
-    private Thread mThread = null;
-    // Control pausing between updates
-    private long mNextFrameTime;
-    // Is the game currently playing and or paused?
-    private volatile boolean mPlaying = false;
+    private AssetLoader mAssets;
+    private boolean mSoundsLoaded;
+    private boolean mAllAssetsLoaded;
+    private boolean mFirstFrameDrawn;
+    // The game loop's thread. It is started on the first resume and
+    // kept until the activity is destroyed, parked while it is paused
+    private GameLoopThread mLoopThread;
+    // By default run the simulation 10 times a second
+    // and draw 60 frames a second in between
+    private static final int DEFAULT_TICKS_PER_SECOND = 10;
+    private static final int DEFAULT_FRAMES_PER_SECOND = 60;
+    // The most ticks run back to back when the loop falls behind
+    private static final int MAX_CATCH_UP_TICKS = 3;
+    // With vsync pacing each frame is run from a Choreographer callback
+    // and timed by the vsync it is for. Without it the loop runs free
+    // and sleeps until the next frame is due, the way it used to
+    private final VsyncClock mFrameClock = new VsyncClock(
+            FrameScheduler.SYSTEM_CLOCK, 1_000_000_000L / DEFAULT_FRAMES_PER_SECOND);
+    private volatile boolean mVsyncPaced = true;
+    // Set from the UI thread, picked up by the next pass
+    private volatile int mRenderRate = DEFAULT_FRAMES_PER_SECOND;
+    private int mAppliedRenderRate = DEFAULT_FRAMES_PER_SECOND;
+    // Decides when updates and draws happen and sleeps between them
+    private final FrameScheduler mScheduler = new FrameScheduler(
+            mFrameClock, DEFAULT_TICKS_PER_SECOND,
+            DEFAULT_FRAMES_PER_SECOND, MAX_CATCH_UP_TICKS);
+    // Set when something changed that needs drawing even though
+    // no tick has happened, like pausing or starting a new game
+    private volatile boolean mRedrawRequired = true;
+    // Is the game currently paused?
     private volatile boolean mPaused = true;
     private PauseButtonHandler pauseButtonHandler;
 
+    // Commands sent from the UI thread to the game thread.
+    // The game thread runs them at the start of each pass of the
+    // loop so it is the only thread that changes the game state
+    private static final int CMD_START = 1;
+    private static final int CMD_PAUSE = 2;
+    private static final int CMD_RESUME = 3;
+    private static final int CMD_TURN_LEFT = 4;
+    private static final int CMD_TURN_RIGHT = 5;
+    // Face a direction from a swipe or the D-pad, in the
+    // same order as Heading: up, right, down, left
+    private static final int CMD_FACE_UP = 6;
+    private static final int CMD_FACE_RIGHT = 7;
+    private static final int CMD_FACE_DOWN = 8;
+    private static final int CMD_FACE_LEFT = 9;
+    private final CommandQueue mCommands = new CommandQueue(64);
+
+    // Heading.values() makes a new array every call
+    private static final Heading[] HEADINGS = Heading.values();
+
+    // Turns wait here until the tick that takes them, one a tick.
+    // A few is plenty, more would be acted on too late to mean much
+    private final TurnBuffer mTurns = new TurnBuffer(3);
+
+    // Swipe to face a direction instead of tapping a side to turn.
+    // Where the finger went down or last turned the snake, the last
+    // way it turned it, and how far it has to go to count as a swipe.
+    // Only touched by the UI thread
+    private volatile boolean mSwipeInput;
+    private float mDownX;
+    private float mDownY;
+    private int mSwipeCommand;
+    private final int mSwipeSlop;
+
 
     // for playing sound effects
     private SoundPool mSP;
@@ -49,25 +127,76 @@ class SnakeGame extends SurfaceView implements Runnable, GameControls{
     // The size in segments of the playable area
     private final int NUM_BLOCKS_WIDE = 40;
     private int mNumBlocksHigh;
-
-    // How many points does the player have
-    private int mScore;
+    // How big each segment is in pixels
+    private int mBlockSize;
+
+    // The game itself. Snake and Apple just draw what it describes
+    private GameEngine mEngine;
+    // The score as text, reused every frame
+    private final ScoreText mScoreText = new ScoreText();
+    // Steers instead of the player when one is on
+    private volatile Pilot mPilot;
+
+    // Every game is recorded and the last one that ended is saved,
+    // so it can be played back with ReplayPlayer.
+    // Pull it with: adb shell run-as com.csc133.snakegame cat files/last_game.replay
+    private static final String REPLAY_FILE_NAME = "last_game.replay";
+    private final ReplayRecorder mRecorder = new ReplayRecorder();
+    private File mReplayFile;
+    // Set once the game that ended has been saved. Game thread only
+    private boolean mReplaySaved;
 
     // Objects for drawing
-    private Canvas mCanvas;
     private SurfaceHolder mSurfaceHolder;
+    // Puts each frame on the screen, with a Canvas unless GL is picked
+    private Renderer mRenderer;
     private Paint mPaint;
-
-    // A snake ssss
-//    private Snake mSnake;
-////    // And an apple
-//    private Apple mApple;
-
-
-    // DrawableMovable interfaces for the snake and apple
-    private DrawableMovable mSnake;
+    // How far through the current tick the frame being drawn is,
+    // and whether it is one of a run of frames of the snake moving
+    private float mAlpha = 1f;
+    private boolean mAnimating;
+    // When the turn the screen doesn't show yet was made, 0 if none
+    private long mUnshownTurnTime;
+
+    // The background and names, drawn once and copied each frame.
+    // Turn it off to draw them every frame the old way
+    private StaticLayer mStaticLayer;
+    private volatile boolean mStaticLayerEnabled = true;
+
+    // Average draw time is logged every this many frames so
+    // drawing with and without the static layer can be compared
+    private static final String TAG = "SnakeGame";
+    private static final int DRAW_TIME_LOG_FRAMES = 300;
+    private long mDrawNanos;
+    private int mDrawCount;
+
+    // Timing for every tick and frame. The HUD shows it over the game
+    private static final String PERF_FILE_NAME = "perf_stats.txt";
+    private static final int HUD_TOP = 140;
+    private static final int HUD_BOTTOM = 290;
+    private final PerfStats mPerf = new PerfStats(mScheduler, mTurns);
+    private final Paint mHudPaint = new Paint();
+    private volatile boolean mPerfHudEnabled;
+
+    // Only the part of the screen that changed is repainted.
+    // The whole surface is repainted when it is new or resized
+    private final Rect mDirtyRect = new Rect();
+    private volatile boolean mFullRepaint = true;
+    // The score shown in the last frame, the score text
+    // needs repainting when it changes
+    private int mDrawnScore = -1;
+
+    // DrawableMovable interfaces for the snake and apple.
+    // They are made once the sprites have loaded
+    private volatile DrawableMovable mSnake;
     private DrawableMovable mApple;
 
+    // All the sprites in one bitmap, and the batch the snake and
+    // apple are queued into so they are drawn in a single call
+    private SpriteAtlas mAtlas;
+    private SpriteBatch mBatch;
+    private boolean mGlRendererEnabled;
+
 
 
     // This is the constructor method that gets called
@@ -83,6 +212,8 @@ class SnakeGame extends SurfaceView implements Runnable, GameControls{
         // Calculate the block size and number of blocks high based on the screen size
         int blockSize = size.x / NUM_BLOCKS_WIDE;
         mNumBlocksHigh = size.y / blockSize;
+        mBlockSize = blockSize;
+        mSwipeSlop = ViewConfiguration.get(context).getScaledTouchSlop() * 2;
 
         // Initialize SoundPool with appropriate settings based on Android version
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
@@ -99,239 +230,696 @@ class SnakeGame extends SurfaceView implements Runnable, GameControls{
             mSP = new SoundPool(5, AudioManager.STREAM_MUSIC, 0);
         }
 
-        // Load sound effects from assets
-        try {
-            AssetManager assetManager = context.getAssets();
-            AssetFileDescriptor descriptor;
-
-            descriptor = assetManager.openFd("get_apple.ogg");
-            mEat_ID = mSP.load(descriptor, 0);
-
-            descriptor = assetManager.openFd("snake_death.ogg");
-            mCrashID = mSP.load(descriptor, 0);
-
-        } catch (IOException e) {
-            // Error handling
-        }
-
         // Initialize SurfaceHolder and Paint objects
         mSurfaceHolder = getHolder();
+        mSurfaceHolder.addCallback(this);
+
+        // Have touches delivered as soon as they arrive, rather than
+        // batched up until the next frame the UI thread draws. Before
+        // Android 11 it can only be asked for a gesture at a time
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            requestUnbufferedDispatch(InputDevice.SOURCE_TOUCHSCREEN);
+        }
         mPaint = new Paint();
+        mPaint.setColor(Color.WHITE);
 
-        // Load background bitmap and resize it to fit the screen
-        mBackgroundBitmap = BitmapFactory.decodeResource(context.getResources(), R.drawable.game_background);
-        mBackgroundBitmap = Bitmap.createScaledBitmap(mBackgroundBitmap, size.x, size.y, false);
+        // The background and font aren't loaded yet, the
+        // layer draws without them until they are
+        mStaticLayer = new StaticLayer(null, null);
 
-        // Load custom font
-        gameFont = Typeface.createFromAsset(context.getAssets(), "fonts/press_start_2p.ttf");
+        mEngine = new GameEngine(NUM_BLOCKS_WIDE, mNumBlocksHigh, System.nanoTime());
+        mEngine.setRecorder(mRecorder);
+        mReplayFile = new File(context.getFilesDir(), REPLAY_FILE_NAME);
 
-        // Initialize Apple and Snake objects
-        mApple = new Apple(context, new Point(NUM_BLOCKS_WIDE, mNumBlocksHigh), blockSize);
-        mSnake = new Snake(context, new Point(NUM_BLOCKS_WIDE, mNumBlocksHigh), blockSize);
+        // Load the sprites, background, font and sounds in parallel
+        // so this returns straight away. The game thread waits for
+        // the sprites and picks the rest up as they arrive
+        mAssets = new AssetLoader(context, blockSize, size.x, size.y, mSP);
     }
 // -
 
+    // Draw the background and names from a cached layer,
+    // or every frame the way it used to be done
+    public void setStaticLayerEnabled(boolean enabled) {
+        mStaticLayerEnabled = enabled;
+        mRedrawRequired = true;
+    }
+
+    // Show frame rate, frame times and GC count over the game
+    public void setPerfHudEnabled(boolean enabled) {
+        mPerfHudEnabled = enabled;
+        mHudPaint.setColor(Color.YELLOW);
+        mHudPaint.setTextSize(30);
+        mRedrawRequired = true;
+    }
+
+    // Pace frames by the display's vsync, or run free and sleep
+    // between frames. Frame times are in the perf stats to compare
+    public void setVsyncPacingEnabled(boolean enabled) {
+        mVsyncPaced = enabled;
+        mPerf.setPacing(enabled ? "vsync" : "free");
+    }
+
+    // Let the game steer itself. Taps still start and pause it
+    public void setAutopilotEnabled(boolean enabled) {
+        mPilot = enabled ? new Autopilot(NUM_BLOCKS_WIDE, mNumBlocksHigh) : null;
+    }
+
+    // Let the cycle solver steer instead, which always fills the board.
+    // The board is 40 wide so it always has a cycle, but if that
+    // changes the player keeps steering on boards without one
+    public void setSolverEnabled(boolean enabled) {
+        mPilot = enabled && HamiltonianSolver.hasCycle(NUM_BLOCKS_WIDE, mNumBlocksHigh)
+                ? new HamiltonianSolver(NUM_BLOCKS_WIDE, mNumBlocksHigh) : null;
+    }
+
+    // Swipe or use the D-pad to face a direction, instead of
+    // tapping the left or right side to turn. The D-pad works either way
+    public void setSwipeInputEnabled(boolean enabled) {
+        mSwipeInput = enabled;
+    }
+
+    // Draw with OpenGL ES 2 instead of a Canvas. Pick before the game
+    // starts, a surface a Canvas has drawn on can't be used by GL after
+    public void setGlRendererEnabled(boolean enabled) {
+        mGlRendererEnabled = enabled;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        // The static layer was drawn for the old size
+        mStaticLayer.invalidate();
+        mRedrawRequired = true;
+    }
+
+    // A new surface has nothing on it yet, repaint all of it
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        mFullRepaint = true;
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        mStaticLayer.invalidate();
+        mFullRepaint = true;
+        mRedrawRequired = true;
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        // Nothing to do, draw() checks the surface is valid
+    }
+
     public void setPauseButtonHandler(PauseButtonHandler handler) {
         this.pauseButtonHandler = handler;
     }
 
+    // How many times a second the snake moves
+    public void setSimulationRate(int ticksPerSecond) {
+        mScheduler.setTickRate(ticksPerSecond);
+    }
+
+    // How many frames a second to draw while the snake is moving.
+    // Usually the refresh rate of the display. From any thread
+    public void setRenderRate(int framesPerSecond) {
+        mRenderRate = framesPerSecond;
+        if (mLoopThread != null) {
+            mLoopThread.wake();
+        }
+    }
+
     // Called to start a new game
     public void newGame() {
-        // Reset the game objects
-        mSnake.reset();
-        mApple.reset();
+        // Reset the snake, apple and score
+        mEngine.newGame();
+        mTurns.clear();
+        mReplaySaved = false;
+        mUnshownTurnTime = 0;
+
+        // Start timing from now so an update can be triggered
+        mScheduler.reset();
+        mRedrawRequired = true;
+
+        // Reset the pause button if the handler is set.
+        // Buttons belong to the UI thread so ask it to do it
+        if (pauseButtonHandler != null && mActivity != null) {
+            mActivity.runOnUiThread(mResetPauseButton);
+        }
+    }
+
+    // Made once up front so starting a game doesn't allocate
+    private final Runnable mResetPauseButton = new Runnable() {
+        @Override
+        public void run() {
+            pauseButtonHandler.resetPauseButton();
+        }
+    };
+
+    // Run everything the UI thread has asked for since last time.
+    // Only called from the game thread
+    private void processCommands() {
+        int command;
+        while ((command = mCommands.poll()) != CommandQueue.EMPTY) {
+            switch (command) {
+                case CMD_START:
+                    // Ignore extra taps once the game is going
+                    if (mPaused) {
+                        if (gameInProgress()) {
+                            // Carry on with the game that was paused
+                            mRedrawRequired = true;
+                            if (pauseButtonHandler != null && mActivity != null) {
+                                mActivity.runOnUiThread(mResetPauseButton);
+                            }
+                        } else {
+                            newGame();
+                        }
+                        mPaused = false;
+                    }
+                    break;
+                case CMD_PAUSE:
+                    mPaused = true;
+                    mTurns.clear();
+                    mUnshownTurnTime = 0;
+                    mRedrawRequired = true;
+                    dumpPerfStats();
+                    break;
+                case CMD_RESUME:
+                    mPaused = false;
+                    mRedrawRequired = true;
+                    break;
+                case CMD_TURN_LEFT:
+                case CMD_TURN_RIGHT:
+                    if (!mPaused) {
+                        mTurns.offerTurn(command == CMD_TURN_RIGHT,
+                                mEngine.getSnake().getHeading(), mCommands.getArgument());
+                    }
+                    break;
+                case CMD_FACE_UP:
+                case CMD_FACE_RIGHT:
+                case CMD_FACE_DOWN:
+                case CMD_FACE_LEFT:
+                    if (!mPaused) {
+                        mTurns.offer(HEADINGS[command - CMD_FACE_UP],
+                                mEngine.getSnake().getHeading(), mCommands.getArgument());
+                    }
+                    break;
+            }
+        }
+    }
 
-        // Prepare the game objects for a new game
-        ((Apple)mApple).spawn(); // Note: spawn is specific to Apple
 
-        // Reset the score
-        mScore = 0;
 
-        // Setup mNextFrameTime so an update can be triggered
-        mNextFrameTime = System.currentTimeMillis();
+    // A game has started and isn't over yet
+    private boolean gameInProgress() {
+        return mEngine.getTick() > 0 && !mEngine.isOver();
+    }
 
-        // Reset the pause button if the handler is set
-        if (pauseButtonHandler != null) {
-            pauseButtonHandler.resetPauseButton();
+    // Wait for the sprites then make everything that draws with them.
+    // Only the first call waits, later ones find them already made.
+    // Returns false if the thread was interrupted while waiting
+    private boolean awaitSprites() {
+        if (mAtlas != null) {
+            return true;
         }
+        try {
+            mAtlas = mAssets.getAtlas().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            // Nothing can be drawn without them
+            throw new RuntimeException("Couldn't load the sprites", e.getCause());
+        }
+
+        // Room for a snake filling the board plus the apple
+        mBatch = new SpriteBatch(mAtlas, NUM_BLOCKS_WIDE * mNumBlocksHigh + 1);
+        mApple = new Apple(mEngine.getApple(), mAtlas, mBatch);
+        mSnake = new Snake(mEngine.getSnake(), mAtlas, mBatch);
+        mRenderer = mGlRendererEnabled
+                ? new GlRenderer(mSurfaceHolder, mAtlas, mBatch.capacity())
+                : new CanvasRenderer(mSurfaceHolder);
+        return true;
     }
 
+    // Use whatever assets have finished loading since last time.
+    // Only called from the game thread
+    private void applyLoadedAssets() {
+        if (mAllAssetsLoaded) {
+            return;
+        }
+        if (mBackgroundBitmap == null) {
+            mBackgroundBitmap = loaded(mAssets.getBackground());
+            if (mBackgroundBitmap != null) {
+                mStaticLayer.setBackground(mBackgroundBitmap);
+                mRedrawRequired = true;
+            }
+        }
+        if (gameFont == null) {
+            gameFont = loaded(mAssets.getFont());
+            if (gameFont != null) {
+                mPaint.setTypeface(gameFont);
+                mStaticLayer.setFont(gameFont);
+                mRedrawRequired = true;
+            }
+        }
+        if (!mSoundsLoaded) {
+            int[] sounds = loaded(mAssets.getSounds());
+            if (sounds != null) {
+                mEat_ID = sounds[0];
+                mCrashID = sounds[1];
+                mSoundsLoaded = true;
+            }
+        }
 
+        // Anything that failed is done with too, the game
+        // carries on without it
+        if (mAssets.getBackground().isDone() && mAssets.getFont().isDone()
+                && mAssets.getSounds().isDone()) {
+            mAllAssetsLoaded = true;
+            // Everything is decoded, the decode buffers aren't needed now
+            SpriteCache.get().recycleScratch();
+            mAssets.logPhase("all assets in use");
+        }
+    }
 
-    // Handles the game loop
-    @Override
-    public void run() {
-        // Ensure newGame is called before game loop starts
-        newGame();
-        while (mPlaying) {
+    // The result if it is ready, otherwise null
+    private static <T> T loaded(Future<T> asset) {
+        if (!asset.isDone()) {
+            return null;
+        }
+        try {
+            return asset.get();
+        } catch (InterruptedException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    // The game loop, run a pass at a time by mLoopThread
+    private final GameLoopThread.Loop mLoop = new GameLoopThread.Loop() {
+        @Override
+        public void onLoopStart() {
+            // The board can't be drawn without the sprites. They are the
+            // only asset the game waits for
+            awaitSprites();
+
+            // The only new game that isn't asked for. Pausing
+            // and resuming carries on with the same one
+            newGame();
+        }
+
+        @Override
+        public long onLoopPass(long frameTimeNanos) {
+            if (!awaitSprites()) {
+                return mScheduler.nanosUntilNextDeadline(false);
+            }
+            boolean paced = mVsyncPaced;
+            boolean vsync = frameTimeNanos != 0;
+            if (vsync) {
+                // Ticks and frames in this pass are timed by the vsync
+                mFrameClock.beginFrame(frameTimeNanos);
+            }
+            int renderRate = mRenderRate;
+            if (renderRate != mAppliedRenderRate) {
+                mScheduler.setFrameRate(renderRate);
+                mAppliedRenderRate = renderRate;
+            }
+            processCommands();
+            applyLoadedAssets();
+
+            // With vsync pacing the moving snake only ticks and draws
+            // on a vsync, a pass in between is just for commands
+            if (paced && !vsync && !mPaused) {
+                return GameLoopThread.NEXT_FRAME;
+            }
+
+            boolean ticked = false;
             if(!mPaused) {
-                // Update 10 times a second
-                if (updateRequired()) {
+                // Run however many fixed ticks are due,
+                // stopping early if one of them ended the game
+                int ticks = mScheduler.advance();
+                for (int i = 0; i < ticks && !mPaused; i++) {
+                    long tickStart = System.nanoTime();
                     update();
+                    mPerf.recordTick(System.nanoTime() - tickStart);
+                    ticked = true;
                 }
+            } else {
+                // Don't bank the paused time as ticks
+                mScheduler.reset();
             }
 
-            draw();
+            // The snake only slides between cells while the game runs.
+            // If nothing ticked, nothing is sliding and nothing else
+            // changed then the last frame is still correct so skip it
+            boolean animating = !mPaused;
+            boolean frameDue = vsync
+                    ? mFrameClock.frameDue(mScheduler.getFrameNanos())
+                    : mScheduler.frameDue();
+            if (ticked || mRedrawRequired || (animating && frameDue)) {
+                mAnimating = animating;
+                if (draw(animating ? mScheduler.interpolation() : 1f)) {
+                    mRedrawRequired = false;
+                }
+                mScheduler.frameDrawn();
+                if (vsync) {
+                    mFrameClock.frameDrawn();
+                }
+            }
+            mFrameClock.endFrame();
+
+            // Frames come from the display while the snake moves
+            if (animating && paced) {
+                return GameLoopThread.NEXT_FRAME;
+            }
+            // Vsyncs stop until it moves again
+            mFrameClock.reset();
+            return mScheduler.nanosUntilNextDeadline(animating);
+        }
+
+        @Override
+        public void onLoopPause() {
+            // Don't let the snake run into a wall while nobody is looking
+            if (!mPaused) {
+                mPaused = true;
+                mRedrawRequired = true;
+            }
+            // The surface is about to go. A GL context is made again
+            // on the next frame
+            if (mRenderer != null) {
+                mRenderer.release();
+            }
+            dumpPerfStats();
+        }
+
+        @Override
+        public void onLoopResume() {
+            // The time spent paused isn't owed as ticks
+            mScheduler.reset();
+            mFullRepaint = true;
+            mRedrawRequired = true;
+        }
+
+        @Override
+        public void onLoopStop() {
+            if (mRenderer != null) {
+                mRenderer.release();
+            }
+        }
+    };
+
+    // Queue a command for the game thread and wake it to run it
+    private void sendCommand(int command) {
+        sendCommand(command, 0);
+    }
+
+    // With the time the input was made, from MotionEvent.getEventTime()
+    // or KeyEvent.getEventTime(). Those are uptimeMillis, which counts
+    // on the same clock as System.nanoTime, only in milliseconds
+    private void sendCommand(int command, long eventTimeMillis) {
+        if (!mCommands.offer(command, eventTimeMillis * 1_000_000L)) {
+            // The game thread is well behind if 64 commands are waiting.
+            // Rare enough that building the message doesn't matter
+            mPerf.recordDroppedCommand();
+            Log.w(TAG, "Command queue full, dropped command " + command);
+        }
+        if (mLoopThread != null) {
+            mLoopThread.wake();
         }
     }
 
     // Implement the GameControls interface methods
     @Override
     public void pauseGame() {
-        mPaused = true;
+        sendCommand(CMD_PAUSE);
     }
 
     @Override
     public void resumeGame() {
-        mPaused = false;
+        sendCommand(CMD_RESUME);
     }
 
 
-    // Check to see if it is time for an update
-    public boolean updateRequired() {
+    // Update all the game objects
+    public void update() {
+        SnakeModel snake = mEngine.getSnake();
+        Pilot pilot = mPilot;
+        boolean turned = false;
+        if (pilot != null) {
+            snake.setHeading(pilot.steer(mEngine));
+            mTurns.clear();
+        } else {
+            // Take one waiting turn, if there is one
+            Heading turn = mTurns.poll(snake.getHeading());
+            if (turn != null) {
+                snake.setHeading(turn);
+                turned = true;
+            }
+        }
 
-        // Run at 10 frames per second
-        final long TARGET_FPS = 10;
-        final long MILLIS_PER_SECOND = 1000;
+        // Move the snake, eat, grow and die
+        int events = mEngine.tick();
 
-        // Are we due to update the frame
-        if(mNextFrameTime <= System.currentTimeMillis()){
-            // Tenth of a second has passed
+        // From the finger or key to the snake moving the new way
+        if (turned) {
+            mPerf.recordInput(System.nanoTime() - mTurns.getTakenTime());
+            if (mUnshownTurnTime == 0) {
+                mUnshownTurnTime = mTurns.getTakenTime();
+            }
+        }
 
-            // Setup when the next update will be triggered
-            mNextFrameTime =System.currentTimeMillis()
-                    + MILLIS_PER_SECOND / TARGET_FPS;
+        // Check if the snake has eaten an apple
+        if ((events & GameEngine.EVENT_ATE_APPLE) != 0) {
+            mSP.play(mEat_ID, 1, 1, 0, 0, 1); // Play eating sound
+        }
 
-            // Return true so that the update and draw
-            // methods are executed
-            return true;
+        // Check if the snake has died
+        if ((events & GameEngine.EVENT_DIED) != 0) {
+            mSP.play(mCrashID, 1, 1, 0, 0, 1); // Play death sound
+        }
+
+        // Don't automatically start a new game. Just pause and show "Tap to Play".
+        if (mEngine.isOver()) {
+            mPaused = true;
+            mRedrawRequired = true;
+            // Resuming after the game ended comes back here,
+            // but the game only needs saving once
+            if (!mReplaySaved) {
+                saveReplay();
+                mReplaySaved = true;
+            }
         }
+    }
 
-        return false;
+    // Write the game that just ended over the last one saved. It is
+    // a few bytes per turn so encoding it here is quick, but the file
+    // is written on another thread so a slow disk can't hold up a frame
+    private void saveReplay() {
+        final byte[] bytes = mRecorder.finish(mEngine).toByteArray();
+        mAssets.execute(new Runnable() {
+            @Override
+            public void run() {
+                try (OutputStream out = new FileOutputStream(mReplayFile)) {
+                    out.write(bytes);
+                } catch (IOException e) {
+                    Log.w(TAG, "Couldn't save the replay", e);
+                }
+            }
+        });
     }
 
 
-    // Update all the game objects
-    public void update() {
-        mSnake.move(); // Move the snake
+    // Draw a frame alpha of the way through the current tick.
+    // Returns false if there was no surface to draw on
+    private boolean draw(float alpha) {
+        mAlpha = alpha;
 
-        // Check if the snake has eaten an apple
-        if (((Snake)mSnake).checkDinner(mApple.getLocation())) {
-            mActivity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    // UI updates here
-                    ((Apple)mApple).spawn(); // Respawn the apple
-                    mScore += 1; // Increase the score
-                }
-            });
-            mSP.play(mEat_ID, 1, 1, 0, 0, 1); // Play eating sound
+        // Repaint just the changed part unless something
+        // happened that changes the whole screen
+        long begin = System.nanoTime();
+        boolean hudChanged = mPerfHudEnabled && mPerf.updateHud(begin);
+        boolean full = mFullRepaint || mRedrawRequired || !findDirtyRect(hudChanged);
+        if (!mRenderer.begin(full ? null : mDirtyRect)) {
+            return false;
         }
+        long start = System.nanoTime();
+        mPerf.recordLock(start - begin);
 
-        // Check if the snake has died
-        if (((Snake)mSnake).detectDeath()) {
-            mActivity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    // Don't automatically start a new game. Just pause and show "Tap to Play".
-                    mPaused = true;
+        // Draw background and names
+        mRenderer.drawStatic(mStaticLayer, mStaticLayerEnabled);
 
-                }
-            });
-            mSP.play(mCrashID, 1, 1, 0, 0, 1); // Play death sound
-        }
-    }
+        // Draw game objects
+        drawGameObjects();
 
+        // Draw the score, and "Tap to Play" if the game is paused
+        mRenderer.drawOverlay(mOverlay, full || hudChanged || mEngine.getScore() != mDrawnScore);
 
-    // Do all the drawing
-    // Original lengthy draw() method
-    public void draw() {
-        if (mSurfaceHolder.getSurface().isValid()) {
-            mCanvas = mSurfaceHolder.lockCanvas();
-            if (mCanvas != null) {
-                // Draw background
-                drawBackground();
+        long drawn = System.nanoTime();
+        logDrawTime(drawn - start);
 
-                // Draw names and score
-                drawText();
+        // Put the frame on the screen
+        mRenderer.end();
+        long posted = System.nanoTime();
+        mPerf.recordPost(posted - drawn);
+        mPerf.recordFrame(posted - begin, posted, mAnimating);
 
-                // Draw game objects
-                drawGameObjects();
+        // The first frame after a turn is the one that shows it
+        if (mUnshownTurnTime != 0) {
+            mPerf.recordPhoton(posted - mUnshownTurnTime);
+            mUnshownTurnTime = 0;
+        }
 
-                // If game is paused, draw "Tap to Play" message
-                if (mPaused) {
-                    drawTapToPlay();
-                }
+        if (!mFirstFrameDrawn) {
+            mFirstFrameDrawn = true;
+            mAssets.logPhase("first frame");
+        }
 
-                // Unlock canvas and post
-                mSurfaceHolder.unlockCanvasAndPost(mCanvas);
-            }
+        // Everything changed so far is on screen now
+        mEngine.getDirtyRegion().clear();
+        mDrawnScore = mEngine.getScore();
+        if (full) {
+            mFullRepaint = false;
         }
+        return true;
     }
 
-    // Refactored drawBackground() method
-    private void drawBackground() {
-        mCanvas.drawBitmap(mBackgroundBitmap, 0, 0, null);
-    }
+    // The text drawn over the board
+    private final Renderer.Overlay mOverlay = new Renderer.Overlay() {
+        @Override
+        public void draw(Canvas canvas) {
+            // Draw score in top left corner
+            drawScore(canvas);
+
+            // If game is paused, draw "Tap to Play" message
+            if (mPaused) {
+                drawTapToPlay(canvas);
+            }
 
-    // Refactored drawText() method
-    private void drawText() {
-        // Draw names "Jacob & Adiba" in top right corner
-        drawNames();
+            if (mPerfHudEnabled) {
+                mPerf.drawHud(canvas, mHudPaint, SCORE_MARGIN_LEFT, HUD_TOP);
+            }
+        }
+    };
+
+    // Work out the pixels that need repainting this frame.
+    // Returns false if it is simpler to repaint everything
+    private boolean findDirtyRect(boolean hudChanged) {
+        DirtyRegion dirty = mEngine.getDirtyRegion();
+
+        // The head and tail slide between these cells
+        // on the frames between ticks
+        SnakeModel snake = mEngine.getSnake();
+        dirty.add(snake.getPrevHead());
+        dirty.add(snake.getHeadCell());
+        dirty.add(snake.getPrevTail());
+        dirty.add(snake.getBody().tailCell());
+
+        if (dirty.isFull()) {
+            return false;
+        }
+        mDirtyRect.set(dirty.getLeft() * mBlockSize, dirty.getTop() * mBlockSize,
+                dirty.getRight() * mBlockSize, dirty.getBottom() * mBlockSize);
+
+        // The score only ever goes up so the new text
+        // covers at least as much as the old text did
+        if (mEngine.getScore() != mDrawnScore) {
+            mScoreText.set(mEngine.getScore());
+            mPaint.setTextSize(60);
+            float width = mPaint.measureText(mScoreText.getChars(), 0, mScoreText.length());
+            mDirtyRect.union(0, 0, SCORE_MARGIN_LEFT * 2 + (int) width, SCORE_MARGIN_TOP + 30);
+        }
 
-        // Draw score in top left corner
-        drawScore();
+        // The HUD has new numbers
+        if (hudChanged) {
+            mDirtyRect.union(0, HUD_TOP, getWidth(), HUD_BOTTOM);
+        }
+        return true;
     }
 
-    // Refactored drawNames() method
-    private void drawNames() {
-        mPaint.setTextSize(40);
-        mPaint.setColor(Color.WHITE);
-        mPaint.setTypeface(gameFont);
-        String names = "Jacob & Adiba";
-        float textWidth = mPaint.measureText(names);
-        float xPositionNames = mCanvas.getWidth() - textWidth - 20; // 20 pixels from right edge
-        float yPositionNames = 60; // 60 pixels from top
-        mCanvas.drawText(names, xPositionNames, yPositionNames, mPaint);
+    // Every so often log how long drawing a frame takes.
+    // Turn it on with: adb shell setprop log.tag.SnakeGame DEBUG
+    private void logDrawTime(long nanos) {
+        mDrawNanos += nanos;
+        mDrawCount++;
+        if (mDrawCount == DRAW_TIME_LOG_FRAMES) {
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "average draw " + (mDrawNanos / mDrawCount / 1000) + "us, static layer "
+                        + (mStaticLayerEnabled ? "on" : "off")
+                        + ", " + mRenderer.getClass().getSimpleName());
+            }
+            mDrawNanos = 0;
+            mDrawCount = 0;
+        }
     }
 
     // Refactored drawScore() method
-    private void drawScore() {
+    private void drawScore(Canvas canvas) {
         mPaint.setTextSize(60);
-        mCanvas.drawText("Score: " + mScore, 20, 120, mPaint);
+        mScoreText.set(mEngine.getScore());
+        canvas.drawText(mScoreText.getChars(), 0, mScoreText.length(), 20, 120, mPaint);
     }
 
     // Refactored drawGameObjects() method
     private void drawGameObjects() {
-        // Draw apple and snake
-        mApple.draw(mCanvas, mPaint);
-        mSnake.draw(mCanvas, mPaint);
+        // Draw apple and snake, all in one batch
+        ((Apple)mApple).queue(mBatch);
+        ((Snake)mSnake).queue(mBatch, mAlpha);
+        mRenderer.drawSprites(mBatch);
     }
 
     // Refactored drawTapToPlay() method
-    private void drawTapToPlay() {
+    private void drawTapToPlay(Canvas canvas) {
         mPaint.setTextSize(90);
+        if (mEngine.isWon()) {
+            // The whole board is snake
+            float youWinWidth = mPaint.measureText("You Win!");
+            canvas.drawText("You Win!", (canvas.getWidth() - youWinWidth) / 2,
+                    canvas.getHeight() / 2 - 120, mPaint);
+        }
         float tapToPlayWidth = mPaint.measureText("Tap to Play");
-        float xPositionTapToPlay = (mCanvas.getWidth() - tapToPlayWidth) / 2;
-        float yPositionTapToPlay = mCanvas.getHeight() / 2;
-        mCanvas.drawText("Tap to Play", xPositionTapToPlay, yPositionTapToPlay, mPaint);
+        float xPositionTapToPlay = (canvas.getWidth() - tapToPlayWidth) / 2;
+        float yPositionTapToPlay = canvas.getHeight() / 2;
+        canvas.drawText("Tap to Play", xPositionTapToPlay, yPositionTapToPlay, mPaint);
     }
 
 
     @Override
     public boolean onTouchEvent(MotionEvent motionEvent) {
-        switch (motionEvent.getAction() & MotionEvent.ACTION_MASK) {
-            case MotionEvent.ACTION_UP:
+        switch (motionEvent.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.R) {
+                    requestUnbufferedDispatch(motionEvent);
+                }
+                mDownX = motionEvent.getX();
+                mDownY = motionEvent.getY();
+                mSwipeCommand = 0;
+
+                // Act as the finger lands rather than waiting for it to lift
                 if (mPaused) {
-                    // Check if the game was paused due to the snake's death and waiting for a restart
-                    newGame(); // Start a new game
-                    mPaused = false; // Unpause the game
-                    // No need to check mPlaying or start a new thread here as newGame() and resume() should handle it
-                    resume(); // Ensure the game resumes correctly if it was not already playing
-                    return true;
-                } else {
+                    // Check if the game was paused due to the snake's death and waiting for a restart.
+                    // The game thread starts the new game, the loop is already running
+                    sendCommand(CMD_START);
+                } else if (!mSwipeInput) {
                     // If the game is already playing, handle snake direction changes
-                    ((Snake)mSnake).switchHeading(motionEvent);
+                    Snake snake = (Snake) mSnake;
+                    if (snake != null) {
+                        sendCommand(snake.isRightSideTap(motionEvent)
+                                ? CMD_TURN_RIGHT : CMD_TURN_LEFT, motionEvent.getEventTime());
+                    }
+                }
+                break;
+            case MotionEvent.ACTION_MOVE:
+            case MotionEvent.ACTION_UP:
+                if (mSwipeInput && !mPaused) {
+                    // Samples that came in since the last event are
+                    // batched into this one, oldest first. Check each so
+                    // a swipe is seen at the moment it went far enough
+                    int history = motionEvent.getHistorySize();
+                    for (int i = 0; i < history; i++) {
+                        swipeTo(motionEvent.getHistoricalX(i), motionEvent.getHistoricalY(i),
+                                motionEvent.getHistoricalEventTime(i));
+                    }
+                    swipeTo(motionEvent.getX(), motionEvent.getY(), motionEvent.getEventTime());
                 }
                 break;
             default:
@@ -340,27 +928,105 @@ class SnakeGame extends SurfaceView implements Runnable, GameControls{
         return true;
     }
 
+    // Face whichever way the finger went furthest, once it's far
+    // enough from where it went down or last turned the snake.
+    // Measuring again from there lets one swipe bend round a corner
+    // into two turns. A tap is too easy to make by accident, it does nothing
+    private void swipeTo(float x, float y, long eventTime) {
+        float dx = x - mDownX;
+        float dy = y - mDownY;
+        if (Math.max(Math.abs(dx), Math.abs(dy)) < mSwipeSlop) {
+            return;
+        }
+        int command = Math.abs(dx) > Math.abs(dy)
+                ? (dx > 0 ? CMD_FACE_RIGHT : CMD_FACE_LEFT)
+                : (dy > 0 ? CMD_FACE_DOWN : CMD_FACE_UP);
+        mDownX = x;
+        mDownY = y;
+        // Carrying on the same way isn't another turn
+        if (command != mSwipeCommand) {
+            mSwipeCommand = command;
+            sendCommand(command, eventTime);
+        }
+    }
+
+
+
+    // Turn with the D-pad or arrow keys. Returns true if the key was
+    // one of them. The activity hands keys over before the pause
+    // button can take them to move focus around
+    public boolean onDirectionKey(KeyEvent event) {
+        int command;
+        switch (event.getKeyCode()) {
+            case KeyEvent.KEYCODE_DPAD_UP:
+                command = CMD_FACE_UP;
+                break;
+            case KeyEvent.KEYCODE_DPAD_RIGHT:
+                command = CMD_FACE_RIGHT;
+                break;
+            case KeyEvent.KEYCODE_DPAD_DOWN:
+                command = CMD_FACE_DOWN;
+                break;
+            case KeyEvent.KEYCODE_DPAD_LEFT:
+                command = CMD_FACE_LEFT;
+                break;
+            default:
+                return false;
+        }
+        // Holding a key down repeats it, only the first press turns
+        if (event.getAction() == KeyEvent.ACTION_DOWN && event.getRepeatCount() == 0) {
+            sendCommand(command, event.getEventTime());
+        }
+        return true;
+    }
+
 
 
-    // Stop the thread
+    // Park the game thread until resume(). The game is paused
+    // rather than thrown away so it can carry on afterwards
     public void pause() {
-        mPlaying = false;
-        try {
-            mThread.join();
-        } catch (InterruptedException e) {
-            // Error
+        if (mLoopThread == null) {
+            return;
+        }
+        // Once this returns the game thread has stopped
+        // and won't draw on the surface again
+        mLoopThread.pause();
+        if (gameInProgress() && pauseButtonHandler != null) {
+            pauseButtonHandler.showPaused();
         }
     }
 
+    // Log how the game loop has been doing and save it to a file,
+    // both on the loader's threads so the game thread doesn't wait.
+    // Pull it with: adb shell run-as com.csc133.snakegame cat files/perf_stats.txt
+    private void dumpPerfStats() {
+        final String summary = mPerf.takeSummary();
+        final File file = new File(getContext().getFilesDir(), PERF_FILE_NAME);
+        mAssets.execute(new Runnable() {
+            @Override
+            public void run() {
+                PerfStats.write(summary, file);
+            }
+        });
+    }
 
-    // Start the thread
+
+    // Start the game thread the first time, wake it after that
     public void resume() {
-        newGame(); // Set up the initial game state
-        mPlaying = true;
-        mThread = new Thread(this);
-        mThread.start();
+        if (mLoopThread == null) {
+            mLoopThread = new GameLoopThread("SnakeGame", mLoop);
+        }
+        mLoopThread.resume();
     }
 
-    // Called to start a new game
+    // Stop the game thread for good and let go of the sounds.
+    // Called when the activity is destroyed
+    public void shutdown() {
+        if (mLoopThread != null) {
+            mLoopThread.quit();
+            mLoopThread = null;
+        }
+        mSP.release();
+    }
 
 }
@@ -0,0 +1,63 @@
+package com.csc133.snakegame;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+// Every sprite in the game packed side by side into one bitmap.
+// Drawing from a single bitmap lets the whole board go to the
+// canvas in one call instead of one call per sprite
+class SpriteAtlas {
+
+    // Which slot each sprite is in, left to right
+    static final int HEAD_RIGHT = 0;
+    static final int HEAD_LEFT = 1;
+    static final int HEAD_UP = 2;
+    static final int HEAD_DOWN = 3;
+    static final int BODY = 4;
+    static final int APPLE = 5;
+    private static final int SPRITE_COUNT = 6;
+
+    private final Bitmap mBitmap;
+
+    // Every sprite is one block square
+    private final int mSize;
+
+    SpriteAtlas(Context context, int size) {
+        mSize = size;
+        mBitmap = Bitmap.createBitmap(size * SPRITE_COUNT, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(mBitmap);
+
+        // Each sprite is decoded once at this size and then shared
+        // by every atlas made after, like when the activity is recreated
+        Resources res = context.getResources();
+        SpriteCache cache = SpriteCache.get();
+        Bitmap[] sprites = {
+                cache.get(res, R.drawable.head, size, SpriteCache.NONE),
+                cache.get(res, R.drawable.head, size, SpriteCache.MIRROR),
+                cache.get(res, R.drawable.head, size, SpriteCache.ROTATE_UP),
+                cache.get(res, R.drawable.head, size, SpriteCache.ROTATE_DOWN),
+                cache.get(res, R.drawable.body, size, SpriteCache.NONE),
+                cache.get(res, R.drawable.apple, size, SpriteCache.NONE)
+        };
+
+        // Copy each one into its slot. The cache keeps the originals
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            canvas.drawBitmap(sprites[i], i * size, 0, null);
+        }
+    }
+
+    Bitmap getBitmap() {
+        return mBitmap;
+    }
+
+    int getSize() {
+        return mSize;
+    }
+
+    // Where a sprite starts across the atlas, in pixels
+    int getLeft(int sprite) {
+        return sprite * mSize;
+    }
+}
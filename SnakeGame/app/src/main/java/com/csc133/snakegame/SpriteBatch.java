@@ -0,0 +1,122 @@
+package com.csc133.snakegame;
+
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+// Collects sprites from the atlas as textured quads and draws them
+// all with a single Canvas.drawVertices call. The arrays are made once
+// with room for every cell on the board so drawing never allocates
+class SpriteBatch {
+
+    // Vertex indices are shorts so a single call can draw at most this
+    // many quads. Bigger batches are split over more than one call
+    private static final int MAX_SPRITES_PER_CALL = Short.MAX_VALUE / 4;
+
+    private final SpriteAtlas mAtlas;
+    private final int mSize;
+
+    // Paints with the atlas, each vertex says which pixel of it to use
+    private final Paint mPaint = new Paint();
+
+    // Four corners per sprite, x and y for each
+    private final float[] mVerts;
+    private final float[] mTexs;
+
+    // Two triangles per sprite. Every call reuses the same
+    // indices with its own offset into the vertices
+    private final short[] mIndices;
+
+    private final int mCapacity;
+    private int mCount;
+
+    SpriteBatch(SpriteAtlas atlas, int capacity) {
+        mAtlas = atlas;
+        mSize = atlas.getSize();
+        mCapacity = capacity;
+        mVerts = new float[capacity * 8];
+        mTexs = new float[capacity * 8];
+
+        int perCall = Math.min(capacity, MAX_SPRITES_PER_CALL);
+        mIndices = new short[perCall * 6];
+        for (int i = 0; i < perCall; i++) {
+            int corner = i * 4;
+            int index = i * 6;
+            // Top left, top right, bottom right then bottom right,
+            // bottom left, top left
+            mIndices[index] = (short) corner;
+            mIndices[index + 1] = (short) (corner + 1);
+            mIndices[index + 2] = (short) (corner + 2);
+            mIndices[index + 3] = (short) (corner + 2);
+            mIndices[index + 4] = (short) (corner + 3);
+            mIndices[index + 5] = (short) corner;
+        }
+
+        mPaint.setShader(new BitmapShader(atlas.getBitmap(),
+                Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+        mPaint.setFilterBitmap(false);
+    }
+
+    // Queue a sprite with its top left corner at x, y in pixels
+    void add(int sprite, float x, float y) {
+        if (mCount == mCapacity) {
+            return;
+        }
+        float u = mAtlas.getLeft(sprite);
+        int i = mCount * 8;
+        putQuad(mVerts, i, x, y);
+        putQuad(mTexs, i, u, 0);
+        mCount++;
+    }
+
+    // Draw everything queued since the last draw, then empty the batch
+    void draw(Canvas canvas) {
+        int perCall = mIndices.length / 6;
+        for (int first = 0; first < mCount; first += perCall) {
+            int sprites = Math.min(perCall, mCount - first);
+            canvas.drawVertices(Canvas.VertexMode.TRIANGLES,
+                    sprites * 8, mVerts, first * 8, mTexs, first * 8,
+                    null, 0, mIndices, 0, sprites * 6, mPaint);
+        }
+        mCount = 0;
+    }
+
+    int size() {
+        return mCount;
+    }
+
+    int capacity() {
+        return mCapacity;
+    }
+
+    // The corners of the queued sprites in pixels, eight floats each.
+    // Renderers that don't draw with a Canvas read these directly
+    float[] getVertices() {
+        return mVerts;
+    }
+
+    // Which pixel of the atlas each corner uses, eight floats each
+    float[] getTexCoords() {
+        return mTexs;
+    }
+
+    // Forget everything queued without drawing it
+    void clear() {
+        mCount = 0;
+    }
+
+    // The four corners of a block starting at left, top
+    private void putQuad(float[] array, int i, float left, float top) {
+        float right = left + mSize;
+        float bottom = top + mSize;
+        array[i] = left;
+        array[i + 1] = top;
+        array[i + 2] = right;
+        array[i + 3] = top;
+        array[i + 4] = right;
+        array[i + 5] = bottom;
+        array[i + 6] = left;
+        array[i + 7] = bottom;
+    }
+}
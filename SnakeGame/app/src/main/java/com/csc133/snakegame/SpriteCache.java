@@ -0,0 +1,248 @@
+package com.csc133.snakegame;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.util.LruCache;
+
+// Every decoded and scaled bitmap in the game, shared by the whole
+// process. Each resource is decoded once at the size it is drawn at
+// and kept, so starting a new game or recreating the activity (like
+// on a rotation) doesn't decode anything again.
+// Bitmaps are keyed by resource, size and transform. The cache never
+// recycles what it drops because callers may still be drawing them
+final class SpriteCache {
+
+    // How a sprite is turned before it is handed out.
+    // These match how the head used to be made facing each way
+    static final int NONE = 0;
+    static final int MIRROR = 1;
+    static final int ROTATE_UP = 2;
+    static final int ROTATE_DOWN = 3;
+
+    // An eighth of what the app may use, in bytes
+    private static final int MAX_BYTES = (int) Math.min(Integer.MAX_VALUE,
+            Runtime.getRuntime().maxMemory() / 8);
+
+    private final LruCache<Long, Bitmap> mBitmaps = new LruCache<Long, Bitmap>(MAX_BYTES) {
+        @Override
+        protected int sizeOf(Long key, Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+    };
+
+    // How many lookups found a bitmap and how many had to make one
+    private int mHits;
+    private int mMisses;
+
+    // Decodes land in these and are then scaled into a bitmap of their
+    // own, so the full size decode reuses one buffer instead of each
+    // asset allocating and throwing away its own
+    private Bitmap mScratchArgb;
+    private Bitmap mScratchOpaque;
+
+    private SpriteCache() {
+    }
+
+    static SpriteCache get() {
+        return Holder.INSTANCE;
+    }
+
+    // Made the first time it is asked for
+    private static class Holder {
+        static final SpriteCache INSTANCE = new SpriteCache();
+    }
+
+    // A size by size square sprite
+    Bitmap get(Resources res, int resId, int size, int transform) {
+        return get(res, resId, size, size, transform, false);
+    }
+
+    // A width by height bitmap of the resource, turned by transform.
+    // Images with no transparency, like the background, can be opaque
+    // to be kept as RGB_565 in half the memory
+    Bitmap get(Resources res, int resId, int width, int height,
+               int transform, boolean opaque) {
+        long key = key(resId, width, height, transform, opaque);
+        Bitmap bitmap;
+        synchronized (this) {
+            bitmap = mBitmaps.get(key);
+            if (bitmap != null) {
+                mHits++;
+                return bitmap;
+            }
+            mMisses++;
+        }
+
+        // Decoding happens outside the lock so different assets can
+        // load at the same time. If two threads want the same one at
+        // once it is made twice and whichever finishes first is kept
+        if (transform == NONE) {
+            bitmap = decode(res, resId, width, height, opaque);
+        } else {
+            // Turn the plain one, which is decoded and cached first
+            Bitmap plain = get(res, resId, width, height, NONE, opaque);
+            Matrix matrix = new Matrix();
+            matrix.preScale(-1, 1);
+            if (transform == ROTATE_UP) {
+                matrix.preRotate(-90);
+            } else if (transform == ROTATE_DOWN) {
+                matrix.preRotate(90);
+            }
+            bitmap = Bitmap.createBitmap(plain, 0, 0, width, height, matrix, true);
+        }
+        synchronized (this) {
+            Bitmap first = mBitmaps.get(key);
+            if (first != null) {
+                return first;
+            }
+            mBitmaps.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    // Called from onTrimMemory. Drop everything once the app is in
+    // the background and the system is short, otherwise just half
+    synchronized void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            mBitmaps.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            mBitmaps.trimToSize(mBitmaps.size() / 2);
+        }
+        // Nobody else holds the scratch bitmaps, they can really go
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            recycleScratch();
+        }
+    }
+
+    // Something like "4 bitmaps 1024KB, 3 hits 4 misses" for the logs
+    synchronized String stats() {
+        return mBitmaps.snapshot().size() + " bitmaps " + (mBitmaps.size() / 1024)
+                + "KB, " + mHits + " hits " + mMisses + " misses";
+    }
+
+    // Let go of the decode buffers once everything is loaded
+    synchronized void recycleScratch() {
+        if (mScratchArgb != null) {
+            mScratchArgb.recycle();
+            mScratchArgb = null;
+        }
+        if (mScratchOpaque != null) {
+            mScratchOpaque.recycle();
+            mScratchOpaque = null;
+        }
+    }
+
+    // Decode straight to about the right size and then scale the
+    // rest of the way, instead of decoding every pixel of a big image
+    // and keeping two full copies around while it is scaled
+    private Bitmap decode(Resources res, int resId, int width, int height, boolean opaque) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(res, resId, options);
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, width, height);
+        // Don't let density scaling pick a size for us
+        options.inScaled = false;
+        options.inPreferredConfig = opaque ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+
+        // Decode into the last buffer if it is big enough
+        Bitmap scratch = takeScratch(opaque);
+        Bitmap decoded = null;
+        if (scratch != null && scratch.getAllocationByteCount() >= decodedBytes(options)) {
+            options.inBitmap = scratch;
+            try {
+                decoded = BitmapFactory.decodeResource(res, resId, options);
+            } catch (IllegalArgumentException e) {
+                // It couldn't be reused after all
+                options.inBitmap = null;
+            }
+        }
+        if (decoded == null) {
+            options.inBitmap = null;
+            decoded = BitmapFactory.decodeResource(res, resId, options);
+        }
+
+        // The cached bitmap is its own copy so the buffer can be reused
+        Bitmap scaled = Bitmap.createScaledBitmap(decoded, width, height, false);
+        if (scaled == decoded) {
+            scaled = decoded.copy(decoded.getConfig(), false);
+        }
+
+        // Keep the bigger of the old and new buffers for next time
+        if (decoded != scratch && scratch != null) {
+            if (decoded.getAllocationByteCount() > scratch.getAllocationByteCount()) {
+                scratch.recycle();
+            } else {
+                decoded.recycle();
+                decoded = scratch;
+            }
+        }
+        giveBackScratch(decoded, opaque);
+        return scaled;
+    }
+
+    // Borrow a decode buffer so no other thread decodes into it
+    private synchronized Bitmap takeScratch(boolean opaque) {
+        Bitmap scratch = opaque ? mScratchOpaque : mScratchArgb;
+        if (opaque) {
+            mScratchOpaque = null;
+        } else {
+            mScratchArgb = null;
+        }
+        return scratch;
+    }
+
+    // Return a buffer. If another thread returned one meanwhile
+    // keep the bigger of the two
+    private synchronized void giveBackScratch(Bitmap scratch, boolean opaque) {
+        Bitmap other = opaque ? mScratchOpaque : mScratchArgb;
+        if (other != null) {
+            if (other.getAllocationByteCount() >= scratch.getAllocationByteCount()) {
+                scratch.recycle();
+                return;
+            }
+            other.recycle();
+        }
+        if (opaque) {
+            mScratchOpaque = scratch;
+        } else {
+            mScratchArgb = scratch;
+        }
+    }
+
+    // How many bytes a decode with these options needs
+    private static long decodedBytes(BitmapFactory.Options options) {
+        int sample = options.inSampleSize;
+        long width = (options.outWidth + sample - 1) / sample;
+        long height = (options.outHeight + sample - 1) / sample;
+        int bytesPerPixel = options.inPreferredConfig == Bitmap.Config.RGB_565 ? 2 : 4;
+        return width * height * bytesPerPixel;
+    }
+
+    // The biggest power of two the image can be shrunk by while
+    // decoding and still be at least width by height
+    static int sampleSize(int imageWidth, int imageHeight, int width, int height) {
+        int sampleSize = 1;
+        while (imageWidth / (sampleSize * 2) >= width
+                && imageHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // Resource ids use all 32 bits, the size, transform
+    // and config share the other 32
+    static long key(int resId, int width, int height, int transform, boolean opaque) {
+        return ((long) resId << 32)
+                | ((long) (width & 0x3FFF) << 18)
+                | ((long) (height & 0x3FFF) << 4)
+                | ((transform & 0x7) << 1)
+                | (opaque ? 1 : 0);
+    }
+}
@@ -0,0 +1,95 @@
+package com.csc133.snakegame;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+// The parts of the screen that never change while the game runs:
+// the background and the names. They are drawn once into a bitmap the
+// size of the surface, and each frame just copies that bitmap instead
+// of drawing the background and measuring and drawing the text again.
+// The bitmap is rebuilt when the surface changes size
+class StaticLayer {
+
+    // Shown until the background has loaded
+    private static final int LOADING_COLOR = Color.BLACK;
+
+    private Bitmap mBackground;
+    private final Paint mPaint = new Paint();
+
+    // The finished layer, rebuilt when it is invalid
+    private Bitmap mLayer;
+    private volatile boolean mValid;
+
+    // Either can be null if it is still loading
+    StaticLayer(Bitmap background, Typeface font) {
+        mBackground = background;
+        mPaint.setTextSize(40);
+        mPaint.setColor(Color.WHITE);
+        mPaint.setTypeface(font);
+    }
+
+    // The background has finished loading
+    void setBackground(Bitmap background) {
+        mBackground = background;
+        invalidate();
+    }
+
+    // The font has finished loading
+    void setFont(Typeface font) {
+        mPaint.setTypeface(font);
+        invalidate();
+    }
+
+    // Called when the surface changes size.
+    // The layer is rebuilt the next time it is drawn
+    void invalidate() {
+        mValid = false;
+    }
+
+    // Copy the layer onto the canvas, building it first if needed
+    void draw(Canvas canvas) {
+        canvas.drawBitmap(getBitmap(canvas.getWidth(), canvas.getHeight()), 0, 0, null);
+    }
+
+    // The finished layer for a surface this size, building it first
+    // if needed. Its generation id changes whenever it is rebuilt
+    Bitmap getBitmap(int width, int height) {
+        if (!mValid || mLayer == null
+                || mLayer.getWidth() != width || mLayer.getHeight() != height) {
+            build(width, height);
+        }
+        return mLayer;
+    }
+
+    // Draw the static content straight onto the canvas with no caching.
+    // This is what every frame used to do
+    void drawUncached(Canvas canvas) {
+        // Draw background
+        if (mBackground != null) {
+            canvas.drawBitmap(mBackground, 0, 0, null);
+        } else {
+            canvas.drawColor(LOADING_COLOR);
+        }
+
+        // Draw names "Jacob & Adiba" in top right corner
+        String names = "Jacob & Adiba";
+        float textWidth = mPaint.measureText(names);
+        float xPositionNames = canvas.getWidth() - textWidth - 20; // 20 pixels from right edge
+        float yPositionNames = 60; // 60 pixels from top
+        canvas.drawText(names, xPositionNames, yPositionNames, mPaint);
+    }
+
+    private void build(int width, int height) {
+        if (mLayer == null || mLayer.getWidth() != width || mLayer.getHeight() != height) {
+            if (mLayer != null) {
+                mLayer.recycle();
+            }
+            mLayer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+        drawUncached(new Canvas(mLayer));
+        mValid = true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.csc133.snakegame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the reusable score text reads the same as the old concatenation.
+ */
+public class ScoreTextTest {
+
+    private static String text(ScoreText scoreText) {
+        return new String(scoreText.getChars(), 0, scoreText.length());
+    }
+
+    @Test
+    public void matchesConcatenatedText() {
+        ScoreText scoreText = new ScoreText();
+        assertEquals("Score: 0", text(scoreText));
+
+        int[] scores = {1, 9, 10, 99, 100, 12345, Integer.MAX_VALUE, -7, Integer.MIN_VALUE, 0};
+        for (int score : scores) {
+            scoreText.set(score);
+            assertEquals("Score: " + score, text(scoreText));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.csc133.snakegame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the decode size and cache keys, the parts that don't need a device.
+ */
+public class SpriteCacheTest {
+
+    @Test
+    public void sampleSizeNeverGoesBelowTheTarget() {
+        assertEquals(1, SpriteCache.sampleSize(100, 100, 100, 100));
+        assertEquals(1, SpriteCache.sampleSize(150, 150, 100, 100));
+        assertEquals(2, SpriteCache.sampleSize(200, 200, 100, 100));
+        assertEquals(8, SpriteCache.sampleSize(512, 512, 60, 60));
+        assertEquals(4, SpriteCache.sampleSize(512, 512, 65, 65));
+        // The shorter side decides
+        assertEquals(2, SpriteCache.sampleSize(2000, 400, 100, 150));
+        // Images smaller than the target are never shrunk
+        assertEquals(1, SpriteCache.sampleSize(20, 20, 100, 100));
+    }
+
+    @Test
+    public void keysDifferForEachPart() {
+        long key = SpriteCache.key(0x7f080001, 48, 48, SpriteCache.NONE, false);
+        assertNotEquals(key, SpriteCache.key(0x7f080002, 48, 48, SpriteCache.NONE, false));
+        assertNotEquals(key, SpriteCache.key(0x7f080001, 49, 48, SpriteCache.NONE, false));
+        assertNotEquals(key, SpriteCache.key(0x7f080001, 48, 49, SpriteCache.NONE, false));
+        assertNotEquals(key, SpriteCache.key(0x7f080001, 48, 48, SpriteCache.MIRROR, false));
+        assertNotEquals(key, SpriteCache.key(0x7f080001, 48, 48, SpriteCache.NONE, true));
+        assertNotEquals(SpriteCache.key(0x7f080001, 2400, 1080, SpriteCache.NONE, false),
+                SpriteCache.key(0x7f080001, 1080, 2400, SpriteCache.NONE, false));
+    }
+}
@@ -0,0 +1,59 @@
+package com.csc133.snakegame.benchmarks;
+
+import com.csc133.snakegame.core.Autopilot;
+import com.csc133.snakegame.core.GameEngine;
+import com.csc133.snakegame.core.SnakeModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// What the autopilot costs out of each tick's budget, following a
+// path it already has on most ticks and searching again on others
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AutopilotBenchmark {
+
+    @Param({"40", "100", "200"})
+    public int boardSize;
+
+    private GameEngine mEngine;
+    private SnakeModel mSnake;
+    private Autopilot mAutopilot;
+
+    @Setup
+    public void setUp() {
+        mEngine = new GameEngine(boardSize, boardSize, 1);
+        mSnake = mEngine.getSnake();
+        mAutopilot = new Autopilot(boardSize, boardSize);
+    }
+
+    // Steer and tick, starting again whenever a game ends
+    @Benchmark
+    public int steerAndTick() {
+        if (mEngine.isOver()) {
+            mEngine.newGame();
+        }
+        mSnake.setHeading(mAutopilot.steer(mEngine));
+        return mEngine.tick();
+    }
+
+    // The worst case, a whole new search every tick
+    @Benchmark
+    public int planEveryTick() {
+        if (mEngine.isOver()) {
+            mEngine.newGame();
+        }
+        mAutopilot.reset();
+        mSnake.setHeading(mAutopilot.steer(mEngine));
+        return mEngine.tick();
+    }
+}
@@ -0,0 +1,89 @@
+package com.csc133.snakegame.benchmarks;
+
+import com.csc133.snakegame.core.BatchEngine;
+import com.csc133.snakegame.core.Heading;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Whole games on thousands of boards at once, split over a pool of
+// threads, the way an offline evaluation run uses the engine.
+// boardTicks in the results is the throughput in board ticks a second
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchBenchmark {
+
+    // Long enough for any game on the board to end
+    private static final int MAX_TICKS = 10_000;
+
+    @Param({"1000", "10000"})
+    public int boards;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    // Counted up by the benchmark and reported per second
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long boardTicks;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            boardTicks = 0;
+        }
+    }
+
+    // Turns now and then, from the board's seed and tick
+    private static final BatchEngine.Policy RANDOM_TURNS = new BatchEngine.Policy() {
+        @Override
+        public Heading steer(BatchEngine batch, int board) {
+            long hash = (batch.getSeed(board) ^ batch.getTick(board)) * 0x9E3779B97F4A7C15L;
+            switch ((int) (hash >>> 61)) {
+                case 0:
+                    return batch.getHeading(board).rotateLeft();
+                case 1:
+                    return batch.getHeading(board).rotateRight();
+                default:
+                    return null;
+            }
+        }
+    };
+
+    private BatchEngine mBatch;
+    private ForkJoinPool mPool;
+    private long mSeed;
+
+    @Setup
+    public void setUp() {
+        mBatch = new BatchEngine(boards, 40, 18);
+        mPool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mPool.shutdown();
+    }
+
+    // New games on every board, played until they all end
+    @Benchmark
+    public long playAll(Counters counters) {
+        mBatch.newGames(mSeed++);
+        long boardTicks = mBatch.run(MAX_TICKS, RANDOM_TURNS, mPool);
+        counters.boardTicks += boardTicks;
+        return boardTicks;
+    }
+}
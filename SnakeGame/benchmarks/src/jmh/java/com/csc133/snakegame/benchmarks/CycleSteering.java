@@ -0,0 +1,49 @@
+package com.csc133.snakegame.benchmarks;
+
+import com.csc133.snakegame.core.GameEngine;
+import com.csc133.snakegame.core.Heading;
+import com.csc133.snakegame.core.SnakeBody;
+
+// Steers a snake around a loop that visits every cell of a board with
+// an even number of rows. Rows are swept back and forth over columns 1
+// and up, then column 0 leads back to the top. A snake following it
+// never runs into itself, so benchmarks can keep it alive at any length
+final class CycleSteering {
+
+    private CycleSteering() {
+    }
+
+    // Which way to go from the head to stay on the loop
+    static Heading next(SnakeBody body) {
+        int head = body.headCell();
+        int x = body.cellX(head);
+        int y = body.cellY(head);
+        if (x == 0) {
+            return y == 0 ? Heading.RIGHT : Heading.UP;
+        }
+        if (y % 2 == 0) {
+            return x < body.getWidth() - 1 ? Heading.RIGHT : Heading.DOWN;
+        }
+        if (x > 1) {
+            return Heading.LEFT;
+        }
+        return y < body.getHeight() - 1 ? Heading.DOWN : Heading.LEFT;
+    }
+
+    // Start a game and grow the snake to the given length.
+    // The apple is taken off the board so the length stays put
+    static void growTo(GameEngine engine, int length) {
+        engine.newGame();
+        engine.getApple().reset();
+        engine.getSnake().grow(length - 1);
+        for (int i = 1; i < length; i++) {
+            step(engine);
+        }
+    }
+
+    // Steer and tick once
+    static int step(GameEngine engine) {
+        engine.getSnake().setHeading(next(engine.getSnake().getBody()));
+        return engine.tick();
+    }
+}
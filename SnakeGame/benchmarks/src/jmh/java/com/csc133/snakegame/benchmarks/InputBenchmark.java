@@ -0,0 +1,80 @@
+package com.csc133.snakegame.benchmarks;
+
+import com.csc133.snakegame.core.CommandQueue;
+import com.csc133.snakegame.core.GameEngine;
+import com.csc133.snakegame.core.Heading;
+import com.csc133.snakegame.core.SnakeModel;
+import com.csc133.snakegame.core.TurnBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Getting a turn from the UI thread to the snake: into the command
+// queue, out again on the game thread into the turn buffer, and one
+// turn taken from there before a tick
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InputBenchmark {
+
+    // Matches the turn commands SnakeGame sends
+    private static final int CMD_TURN_LEFT = 4;
+    private static final int CMD_TURN_RIGHT = 5;
+
+    @Param({"40", "100", "200"})
+    public int boardSize;
+
+    @Param({"1", "100", "1000"})
+    public int snakeLength;
+
+    private final CommandQueue mCommands = new CommandQueue(64);
+    private final TurnBuffer mTurns = new TurnBuffer(3);
+    private GameEngine mEngine;
+    private SnakeModel mSnake;
+
+    @Setup
+    public void setUp() {
+        mEngine = new GameEngine(boardSize, boardSize, 1);
+        mSnake = mEngine.getSnake();
+        CycleSteering.growTo(mEngine, snakeLength);
+    }
+
+    // One turn sent and handled
+    @Benchmark
+    public int offerAndDrain() {
+        mCommands.offer(CMD_TURN_RIGHT);
+        return drain();
+    }
+
+    // A burst of taps landing inside one tick
+    @Benchmark
+    public int drainBurst() {
+        for (int i = 0; i < 8; i++) {
+            mCommands.offer((i & 1) == 0 ? CMD_TURN_LEFT : CMD_TURN_RIGHT);
+        }
+        return drain();
+    }
+
+    private int drain() {
+        int handled = 0;
+        int command;
+        while ((command = mCommands.poll()) != CommandQueue.EMPTY) {
+            mTurns.offerTurn(command == CMD_TURN_RIGHT, mSnake.getHeading(),
+                    mCommands.getArgument());
+            handled++;
+        }
+        Heading turn = mTurns.poll(mSnake.getHeading());
+        if (turn != null) {
+            mSnake.setHeading(turn);
+        }
+        return handled + mSnake.getHeading().ordinal();
+    }
+}
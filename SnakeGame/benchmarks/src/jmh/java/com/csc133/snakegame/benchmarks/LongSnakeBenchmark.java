@@ -0,0 +1,42 @@
+package com.csc133.snakegame.benchmarks;
+
+import com.csc133.snakegame.core.GameEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// A tick with a snake thousands of segments long, to check the cost
+// stays flat as it grows. Only a big board holds snakes this long,
+// so these lengths are kept out of TickBenchmark where they would
+// be paired with the smaller boards
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LongSnakeBenchmark {
+
+    private static final int BOARD_SIZE = 200;
+
+    @Param({"10", "1000", "5000", "10000", "20000"})
+    public int snakeLength;
+
+    private GameEngine mEngine;
+
+    @Setup
+    public void setUp() {
+        mEngine = new GameEngine(BOARD_SIZE, BOARD_SIZE, 1);
+        CycleSteering.growTo(mEngine, snakeLength);
+    }
+
+    @Benchmark
+    public int tick() {
+        return CycleSteering.step(mEngine);
+    }
+}
@@ -0,0 +1,80 @@
+package com.csc133.snakegame.benchmarks;
+
+import com.csc133.snakegame.core.GameEngine;
+import com.csc133.snakegame.core.Replay;
+import com.csc133.snakegame.core.ReplayPlayer;
+import com.csc133.snakegame.core.ReplayRecorder;
+import com.csc133.snakegame.core.SnakeModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Playing recorded games back headless, the way a pile of real
+// sessions would be checked after an engine change
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReplayBenchmark {
+
+    private static final int GAMES = 1000;
+
+    private final ReplayPlayer mPlayer = new ReplayPlayer();
+    private Replay[] mReplays;
+    private byte[][] mFiles;
+
+    // Record games on the default board with a turn now and then
+    @Setup
+    public void setUp() {
+        GameEngine engine = new GameEngine(40, 18, 1);
+        ReplayRecorder recorder = new ReplayRecorder();
+        engine.setRecorder(recorder);
+        SnakeModel snake = engine.getSnake();
+        Random turns = new Random(1);
+
+        mReplays = new Replay[GAMES];
+        mFiles = new byte[GAMES][];
+        for (int i = 0; i < GAMES; i++) {
+            engine.newGame();
+            while (!engine.isOver()) {
+                if (turns.nextInt(4) == 0) {
+                    snake.switchHeading(turns.nextBoolean());
+                }
+                engine.tick();
+            }
+            mReplays[i] = recorder.finish(engine);
+            mFiles[i] = mReplays[i].toByteArray();
+        }
+    }
+
+    // Time per game, simulated to the end
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public int play() {
+        int score = 0;
+        for (Replay replay : mReplays) {
+            score += mPlayer.play(replay).getScore();
+        }
+        return score;
+    }
+
+    // Time per game including reading it from its bytes
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public int readAndPlay() throws IOException {
+        int score = 0;
+        for (byte[] file : mFiles) {
+            score += mPlayer.play(Replay.fromByteArray(file)).getScore();
+        }
+        return score;
+    }
+}
@@ -0,0 +1,96 @@
+package com.csc133.snakegame.benchmarks;
+
+import com.csc133.snakegame.core.GameEngine;
+import com.csc133.snakegame.core.HamiltonianSolver;
+import com.csc133.snakegame.core.SnakeModel;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// How long the cycle solver takes to fill the board, one whole game
+// per op. ticks in the results is how many ticks each game took and
+// tickRate is the ticks played a second.
+// A 200x200 game is about 200 million ticks, so only a few are run
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Param({"10", "20", "50", "100", "200"})
+    public int boardSize;
+
+    @Param({"true", "false"})
+    public boolean shortcuts;
+
+    // Ticks to fill the board, as is
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Completion {
+        public long ticks;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            ticks = 0;
+        }
+    }
+
+    // The same ticks, reported per second
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        public long tickRate;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            tickRate = 0;
+        }
+    }
+
+    private GameEngine mEngine;
+    private SnakeModel mSnake;
+    private HamiltonianSolver mSolver;
+    private long mSeed;
+
+    @Setup
+    public void setUp() {
+        mEngine = new GameEngine(boardSize, boardSize, 1);
+        mSnake = mEngine.getSnake();
+        mSolver = new HamiltonianSolver(boardSize, boardSize);
+        mSolver.setShortcutsEnabled(shortcuts);
+    }
+
+    @Setup(Level.Invocation)
+    public void newGame() {
+        mEngine.newGame(mSeed++);
+    }
+
+    // Play until the board is full
+    @Benchmark
+    public boolean fillBoard(Completion completion, Throughput throughput) {
+        long ticks = 0;
+        while (!mEngine.isOver()) {
+            mSnake.setHeading(mSolver.steer(mEngine));
+            mEngine.tick();
+            ticks++;
+        }
+        completion.ticks += ticks;
+        throughput.tickRate += ticks;
+        return mEngine.isWon();
+    }
+}
@@ -0,0 +1,67 @@
+package com.csc133.snakegame.benchmarks;
+
+import com.csc133.snakegame.core.AppleModel;
+import com.csc133.snakegame.core.OccupancyGrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Placing an apple as the snake fills more of the board.
+// The fill ratio is the snake's length as a share of the board.
+// Picking blind and trying again is included to show what the
+// free cell list saves on a nearly full board
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpawnBenchmark {
+
+    @Param({"40", "100", "200"})
+    public int boardSize;
+
+    @Param({"0.1", "0.5", "0.9", "0.99"})
+    public double fillRatio;
+
+    private OccupancyGrid mGrid;
+    private AppleModel mApple;
+    private Random mRandom;
+
+    @Setup
+    public void setUp() {
+        int cells = boardSize * boardSize;
+        mGrid = new OccupancyGrid(boardSize, boardSize);
+        mApple = new AppleModel(boardSize, 1);
+        mRandom = new Random(2);
+
+        // Cover a random share of the board
+        Random fill = new Random(3);
+        int covered = (int) (cells * fillRatio);
+        while (cells - mGrid.getFreeCount() < covered) {
+            mGrid.set(fill.nextInt(cells));
+        }
+    }
+
+    @Benchmark
+    public int freeCellIndex() {
+        mApple.spawn(mGrid);
+        return mApple.getCell();
+    }
+
+    @Benchmark
+    public int rejectionSampling() {
+        int cells = boardSize * boardSize;
+        int cell;
+        do {
+            cell = mRandom.nextInt(cells);
+        } while (mGrid.isOccupied(cell));
+        return cell;
+    }
+}
@@ -0,0 +1,63 @@
+package com.csc133.snakegame.benchmarks;
+
+import com.csc133.snakegame.core.GameEngine;
+import com.csc133.snakegame.core.SnakeModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// The cost of one simulation tick and of each step inside it
+// on square boards with snakes of different lengths.
+// LongSnakeBenchmark goes on to snakes thousands of segments long
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TickBenchmark {
+
+    @Param({"40", "100", "200"})
+    public int boardSize;
+
+    @Param({"1", "100", "1000"})
+    public int snakeLength;
+
+    private GameEngine mEngine;
+    private SnakeModel mSnake;
+
+    @Setup
+    public void setUp() {
+        mEngine = new GameEngine(boardSize, boardSize, 1);
+        mSnake = mEngine.getSnake();
+        CycleSteering.growTo(mEngine, snakeLength);
+    }
+
+    // A whole tick: move, check for the apple, check for death
+    @Benchmark
+    public int tick() {
+        return CycleSteering.step(mEngine);
+    }
+
+    @Benchmark
+    public int move() {
+        mSnake.setHeading(CycleSteering.next(mSnake.getBody()));
+        mSnake.move();
+        return mSnake.getHeadCell();
+    }
+
+    @Benchmark
+    public boolean checkDinner() {
+        return mSnake.checkDinner(mEngine.getApple().getCell());
+    }
+
+    @Benchmark
+    public boolean detectDeath() {
+        return mSnake.detectDeath();
+    }
+}
@@ -0,0 +1,59 @@
+package com.csc133.snakegame.core;
+
+import java.util.Random;
+
+// Where the apple is, without any drawing.
+// The app's Apple class draws whatever this describes
+public class AppleModel {
+
+    // Used when the apple is off the board
+    public static final int HIDDEN = -1;
+
+    private final int mWidth;
+
+    // The cell the apple is on, or HIDDEN
+    private int mCell = HIDDEN;
+
+    // Picks where the apple goes. Kept for the life of the apple
+    // and can be seeded to get the same apples every game
+    private final Random mRandom;
+
+    public AppleModel(int width, long seed) {
+        mWidth = width;
+        mRandom = new Random(seed);
+    }
+
+    // Use a fixed seed so the apples land in the same places
+    public void setSeed(long seed) {
+        mRandom.setSeed(seed);
+    }
+
+    // This is called every time an apple is eaten.
+    // Picks one of the cells the snake isn't covering.
+    // Returns false if there are none left, the snake fills the board
+    public boolean spawn(OccupancyGrid occupancy) {
+        mCell = occupancy.randomFreeCell(mRandom);
+        return mCell != HIDDEN;
+    }
+
+    // Take the apple off the board until the next spawn
+    public void reset() {
+        mCell = HIDDEN;
+    }
+
+    public int getCell() {
+        return mCell;
+    }
+
+    public boolean isHidden() {
+        return mCell == HIDDEN;
+    }
+
+    public int getX() {
+        return mCell % mWidth;
+    }
+
+    public int getY() {
+        return mCell / mWidth;
+    }
+}
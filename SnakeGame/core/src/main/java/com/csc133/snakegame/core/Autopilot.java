@@ -0,0 +1,195 @@
+package com.csc133.snakegame.core;
+
+import java.util.Arrays;
+
+// Steers the snake by itself. It finds the shortest way from the head
+// to the apple around the body and the walls with a breadth first
+// search, then follows that path tick by tick. A new path is only
+// searched for when the apple moves or the next step of the old one
+// is blocked, so most ticks cost a couple of array reads.
+// When there is no way to the apple it heads for whichever neighbour
+// has the most room, hoping the tail opens a way up.
+// Everything the search needs is made up front so steering never
+// allocates, whatever the size of the board
+public class Autopilot implements Pilot {
+
+    // Heading.values() makes a new array every call
+    private static final Heading[] HEADINGS = Heading.values();
+
+    private final int mWidth;
+
+    // The search's queue of cells, and how each cell was reached.
+    // A cell has been seen in this search if its stamp matches, so
+    // nothing needs clearing between searches
+    private final int[] mQueue;
+    private final int[] mParent;
+    private final int[] mSeen;
+    private int mStamp;
+
+    // The path being followed: the cell it starts from, then each
+    // cell to step onto up to the apple, and which step is next
+    private final int[] mPath;
+    private int mPathFrom = -1;
+    private int mPathLength;
+    private int mPathNext;
+    private int mTarget = AppleModel.HIDDEN;
+
+    // How many times a path was searched for, to check they are reused
+    private int mPlans;
+
+    public Autopilot(int width, int height) {
+        mWidth = width;
+        int cells = width * height;
+        mQueue = new int[cells];
+        mParent = new int[cells];
+        mSeen = new int[cells];
+        mPath = new int[cells];
+    }
+
+    @Override
+    public Heading steer(GameEngine engine) {
+        SnakeModel snake = engine.getSnake();
+        OccupancyGrid occupancy = snake.getOccupancy();
+        int head = snake.getHeadCell();
+        int apple = engine.getApple().getCell();
+
+        if (!onPath(head, apple, occupancy)) {
+            plan(head, apple, occupancy);
+        }
+        if (mPathNext < mPathLength) {
+            return headingTo(head, mPath[mPathNext++]);
+        }
+        return mostRoom(head, snake.getHeading(), occupancy);
+    }
+
+    // Forget the path being followed so the next tick searches again
+    public void reset() {
+        mPathLength = 0;
+        mPathNext = 0;
+        mPathFrom = -1;
+        mTarget = AppleModel.HIDDEN;
+    }
+
+    public int getPlanCount() {
+        return mPlans;
+    }
+
+    // Is the head where the path says, heading for
+    // the same apple, with the next step still clear
+    private boolean onPath(int head, int apple, OccupancyGrid occupancy) {
+        if (apple == AppleModel.HIDDEN || apple != mTarget || mPathNext >= mPathLength) {
+            return false;
+        }
+        int at = mPathNext == 0 ? mPathFrom : mPath[mPathNext - 1];
+        return at == head && !occupancy.isOccupied(mPath[mPathNext]);
+    }
+
+    // Search outwards from the head until the apple is found, then
+    // walk back from it to lay out the path
+    private void plan(int head, int apple, OccupancyGrid occupancy) {
+        mPlans++;
+        mPathFrom = head;
+        mPathLength = 0;
+        mPathNext = 0;
+        mTarget = apple;
+        if (apple == AppleModel.HIDDEN) {
+            return;
+        }
+        search(head, apple, occupancy);
+        if (mSeen[apple] != mStamp) {
+            // There's no way there right now
+            return;
+        }
+
+        int length = 0;
+        for (int cell = apple; cell != head; cell = mParent[cell]) {
+            length++;
+        }
+        int i = length;
+        for (int cell = apple; cell != head; cell = mParent[cell]) {
+            mPath[--i] = cell;
+        }
+        mPathLength = length;
+    }
+
+    // Breadth first over the free cells from start. Stops when it
+    // reaches target, or goes on until everything reachable is seen
+    // if target is -1. Returns how many cells were reached
+    private int search(int start, int target, OccupancyGrid occupancy) {
+        int stamp = nextStamp();
+        int head = 0;
+        int tail = 0;
+        mQueue[tail++] = start;
+        mSeen[start] = stamp;
+        while (head < tail) {
+            int cell = mQueue[head++];
+            int x = cell % mWidth;
+            int y = cell / mWidth;
+            for (Heading heading : HEADINGS) {
+                int nx = x + heading.dx;
+                int ny = y + heading.dy;
+                if (occupancy.isOccupied(nx, ny)) {
+                    continue;
+                }
+                int next = ny * mWidth + nx;
+                if (mSeen[next] == stamp) {
+                    continue;
+                }
+                mSeen[next] = stamp;
+                mParent[next] = cell;
+                mQueue[tail++] = next;
+                if (next == target) {
+                    return tail - 1;
+                }
+            }
+        }
+        // The start doesn't count
+        return tail - 1;
+    }
+
+    // With no way to the apple, go to the free neighbour that can
+    // reach the most cells, keeping straight on when it's a tie
+    private Heading mostRoom(int head, Heading current, OccupancyGrid occupancy) {
+        Heading best = current;
+        int bestRoom = -1;
+        int x = head % mWidth;
+        int y = head / mWidth;
+        for (int i = 0; i < HEADINGS.length; i++) {
+            // Try straight on first so it wins ties
+            Heading heading = HEADINGS[(current.ordinal() + i) % HEADINGS.length];
+            int nx = x + heading.dx;
+            int ny = y + heading.dy;
+            if (occupancy.isOccupied(nx, ny)) {
+                continue;
+            }
+            // The cell itself plus everything reachable from it
+            int room = 1 + search(ny * mWidth + nx, -1, occupancy);
+            if (room > bestRoom) {
+                best = heading;
+                bestRoom = room;
+            }
+        }
+        return best;
+    }
+
+    private Heading headingTo(int from, int to) {
+        int step = to - from;
+        if (step == 1) {
+            return Heading.RIGHT;
+        }
+        if (step == -1) {
+            return Heading.LEFT;
+        }
+        return step > 0 ? Heading.DOWN : Heading.UP;
+    }
+
+    // A new stamp for a search, clearing the marks
+    // once in a very long while when they run out
+    private int nextStamp() {
+        if (++mStamp == Integer.MAX_VALUE) {
+            Arrays.fill(mSeen, 0);
+            mStamp = 1;
+        }
+        return mStamp;
+    }
+}
@@ -0,0 +1,387 @@
+package com.csc133.snakegame.core;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Many independent games on boards of the same size, for offline
+// evaluation runs. Instead of an object graph per board everything is
+// kept in flat arrays indexed by board, and for the per cell state by
+// board * cells + cell, so thousands of boards cost a handful of
+// allocations and a tick is array reads and writes with no pointers
+// to chase. The rules are the same as GameEngine's, step for step, so
+// a board given a seed and the same steering plays out exactly the
+// same game GameEngine would, however the boards are split over threads.
+// The move itself is checked with Rules, the same as GameEngine. The
+// order of a tick and the apple's generator are copied from GameEngine
+// and java.util.Random, and everyBoardPlaysTheSameGameAsGameEngine
+// in BatchEngineTest catches them going out of step
+public class BatchEngine {
+
+    // Picks each board's heading before each of its ticks. Called
+    // from several threads at once for different boards, so it must
+    // only depend on what it is given
+    public interface Policy {
+        // The heading to move in, or null to keep going the same way
+        Heading steer(BatchEngine batch, int board);
+    }
+
+    // Heading.values() makes a new array every call
+    private static final Heading[] HEADINGS = Heading.values();
+
+    // java.util.Random's generator, kept as a long per board
+    private static final long RANDOM_MULTIPLIER = 0x5DEECE66DL;
+    private static final long RANDOM_MASK = (1L << 48) - 1;
+
+    // Fewer boards than this aren't worth handing to another thread
+    private static final int MIN_BOARDS_PER_TASK = 64;
+
+    private final int mBoards;
+    private final int mWidth;
+    private final int mHeight;
+    private final int mCells;
+    private final int mWords;
+
+    // Per cell, board * mCells + i. The snake's ring of cells from
+    // the tail, the free cells and where each cell is in that list
+    private final int[] mBody;
+    private final int[] mFree;
+    private final int[] mFreeIndex;
+    // Per cell bits, board * mWords + word. Set where the snake is
+    private final long[] mOccupied;
+
+    // Per board
+    private final int[] mTail;
+    private final int[] mLength;
+    private final int[] mFreeCount;
+    private final int[] mPendingGrowth;
+    private final int[] mApple;
+    private final int[] mScore;
+    private final int[] mTick;
+    private final byte[] mHeading;
+    private final boolean[] mOver;
+    private final boolean[] mWon;
+    private final long[] mRandom;
+    private final long[] mSeed;
+
+    // Throws ArithmeticException if all the boards' cells
+    // together are more than an array can hold
+    public BatchEngine(int boards, int width, int height) {
+        if (boards < 1 || width < 1 || height < 1) {
+            throw new IllegalArgumentException(
+                    boards + " boards of " + width + "x" + height);
+        }
+        mBoards = boards;
+        mWidth = width;
+        mHeight = height;
+        mCells = Math.multiplyExact(width, height);
+        mWords = (mCells + 63) >>> 6;
+
+        // Every board's index into these fits an int once their sizes do
+        int allCells = Math.multiplyExact(boards, mCells);
+        int allWords = Math.multiplyExact(boards, mWords);
+        mBody = new int[allCells];
+        mFree = new int[allCells];
+        mFreeIndex = new int[allCells];
+        mOccupied = new long[allWords];
+
+        mTail = new int[boards];
+        mLength = new int[boards];
+        mFreeCount = new int[boards];
+        mPendingGrowth = new int[boards];
+        mApple = new int[boards];
+        mScore = new int[boards];
+        mTick = new int[boards];
+        mHeading = new byte[boards];
+        mOver = new boolean[boards];
+        mWon = new boolean[boards];
+        mRandom = new long[boards];
+        mSeed = new long[boards];
+    }
+
+    // Start every board again. The seeds come from this one the same
+    // way a GameEngine made with it picks a seed for each new game
+    public void newGames(long seed) {
+        Random seeds = new Random(seed);
+        for (int board = 0; board < mBoards; board++) {
+            newGame(board, seeds.nextLong());
+        }
+    }
+
+    // Start one board again from its own seed,
+    // the same as GameEngine.newGame(seed)
+    public void newGame(int board, long seed) {
+        mSeed[board] = seed;
+        mRandom[board] = (seed ^ RANDOM_MULTIPLIER) & RANDOM_MASK;
+        mTick[board] = 0;
+
+        // A single segment in the middle heading right
+        mHeading[board] = (byte) Heading.RIGHT.ordinal();
+        int base = board * mCells;
+        for (int i = 0; i < mCells; i++) {
+            mFree[base + i] = i;
+            mFreeIndex[base + i] = i;
+        }
+        mFreeCount[board] = mCells;
+        Arrays.fill(mOccupied, board * mWords, (board + 1) * mWords, 0L);
+        int start = (mHeight / 2) * mWidth + mWidth / 2;
+        mTail[board] = 0;
+        mLength[board] = 1;
+        mBody[base] = start;
+        occupy(board, start);
+        mPendingGrowth[board] = 0;
+
+        mApple[board] = randomFreeCell(board);
+        mScore[board] = 0;
+        mOver[board] = false;
+        mWon[board] = false;
+    }
+
+    // Run up to ticks ticks on every board that is still going, spread
+    // over the pool's threads. Returns how many board ticks were run
+    public long run(int ticks, Policy policy, ForkJoinPool pool) {
+        int perTask = Math.max(MIN_BOARDS_PER_TASK, mBoards / (pool.getParallelism() * 4));
+        return pool.invoke(new Run(0, mBoards, ticks, policy, perTask));
+    }
+
+    // The same on the common pool
+    public long run(int ticks, Policy policy) {
+        return run(ticks, policy, ForkJoinPool.commonPool());
+    }
+
+    // Run boards from up to to on this thread, each one all the way
+    // through its ticks so its arrays stay in this core's cache
+    private long runBoards(int from, int to, int ticks, Policy policy) {
+        long boardTicks = 0;
+        for (int board = from; board < to; board++) {
+            for (int i = 0; i < ticks && !mOver[board]; i++) {
+                Heading heading = policy.steer(this, board);
+                if (heading != null) {
+                    mHeading[board] = (byte) heading.ordinal();
+                }
+                tick(board);
+                boardTicks++;
+            }
+        }
+        return boardTicks;
+    }
+
+    // Halves the boards until there are few enough to run
+    private final class Run extends RecursiveTask<Long> {
+        // Never serialized, ForkJoinTask just happens to be Serializable
+        private static final long serialVersionUID = 1L;
+
+        private final int mFrom;
+        private final int mTo;
+        private final int mTicks;
+        private final Policy mPolicy;
+        private final int mPerTask;
+
+        Run(int from, int to, int ticks, Policy policy, int perTask) {
+            mFrom = from;
+            mTo = to;
+            mTicks = ticks;
+            mPolicy = policy;
+            mPerTask = perTask;
+        }
+
+        @Override
+        protected Long compute() {
+            if (mTo - mFrom <= mPerTask) {
+                return runBoards(mFrom, mTo, mTicks, mPolicy);
+            }
+            int middle = (mFrom + mTo) >>> 1;
+            Run left = new Run(mFrom, middle, mTicks, mPolicy, mPerTask);
+            left.fork();
+            long right = new Run(middle, mTo, mTicks, mPolicy, mPerTask).compute();
+            return right + left.join();
+        }
+    }
+
+    // Move one board on by one step. Returns GameEngine's EVENT flags
+    public int tick(int board) {
+        if (mOver[board]) {
+            return 0;
+        }
+        mTick[board]++;
+
+        // Move the snake. Leaving the board or running
+        // into the body leaves it where it is, dead
+        Heading heading = HEADINGS[mHeading[board]];
+        int head = headCell(board);
+        int x = head % mWidth + heading.dx;
+        int y = head / mWidth + heading.dy;
+        if (!Rules.inBounds(x, y, mWidth, mHeight)) {
+            mOver[board] = true;
+            return GameEngine.EVENT_DIED;
+        }
+        int next = y * mWidth + x;
+        boolean grow = mPendingGrowth[board] > 0;
+        if (Rules.hitsBody(isOccupied(board, next), next, tailCell(board), grow)) {
+            mOver[board] = true;
+            return GameEngine.EVENT_DIED;
+        }
+        if (grow) {
+            mPendingGrowth[board]--;
+        }
+        int base = board * mCells;
+        if (Rules.lengthens(grow, mLength[board], mCells)) {
+            mLength[board]++;
+        } else {
+            // The tail leaves before the head arrives
+            vacate(board, mBody[base + mTail[board]]);
+            mTail[board] = wrap(mTail[board] + 1);
+        }
+        mBody[base + wrap(mTail[board] + mLength[board] - 1)] = next;
+        occupy(board, next);
+
+        // Eat the apple, and win if there is nowhere left for another
+        int events = 0;
+        if (next == mApple[board]) {
+            mPendingGrowth[board]++;
+            mScore[board]++;
+            events |= GameEngine.EVENT_ATE_APPLE;
+            mApple[board] = randomFreeCell(board);
+            if (mApple[board] == AppleModel.HIDDEN) {
+                mWon[board] = true;
+                mOver[board] = true;
+                events |= GameEngine.EVENT_WON;
+            }
+        }
+        return events;
+    }
+
+    private void occupy(int board, int cell) {
+        mOccupied[board * mWords + (cell >>> 6)] |= 1L << cell;
+
+        // Swap the last free cell into this one's slot
+        int base = board * mCells;
+        int index = mFreeIndex[base + cell];
+        int last = mFree[base + --mFreeCount[board]];
+        mFree[base + index] = last;
+        mFreeIndex[base + last] = index;
+    }
+
+    private void vacate(int board, int cell) {
+        mOccupied[board * mWords + (cell >>> 6)] &= ~(1L << cell);
+
+        int base = board * mCells;
+        mFree[base + mFreeCount[board]] = cell;
+        mFreeIndex[base + cell] = mFreeCount[board];
+        mFreeCount[board]++;
+    }
+
+    // OccupancyGrid.randomFreeCell with the board's own generator
+    private int randomFreeCell(int board) {
+        int count = mFreeCount[board];
+        if (count == 0) {
+            return AppleModel.HIDDEN;
+        }
+        return mFree[board * mCells + nextInt(board, count)];
+    }
+
+    // Random.nextInt(bound), number for number
+    private int nextInt(int board, int bound) {
+        int r = next31(board);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = next31(board)) {
+        }
+        return r;
+    }
+
+    private int next31(int board) {
+        long seed = (mRandom[board] * RANDOM_MULTIPLIER + 0xBL) & RANDOM_MASK;
+        mRandom[board] = seed;
+        return (int) (seed >>> (48 - 31));
+    }
+
+    // Bring a ring index back inside the ring without a divide
+    private int wrap(int i) {
+        return i >= mCells ? i - mCells : i;
+    }
+
+    public boolean isOccupied(int board, int cell) {
+        return (mOccupied[board * mWords + (cell >>> 6)] & (1L << cell)) != 0;
+    }
+
+    // Anything off the board counts as occupied
+    public boolean isOccupied(int board, int x, int y) {
+        if (!Rules.inBounds(x, y, mWidth, mHeight)) {
+            return true;
+        }
+        return isOccupied(board, y * mWidth + x);
+    }
+
+    public int headCell(int board) {
+        return mBody[board * mCells + wrap(mTail[board] + mLength[board] - 1)];
+    }
+
+    public int tailCell(int board) {
+        return mBody[board * mCells + mTail[board]];
+    }
+
+    public int getLength(int board) {
+        return mLength[board];
+    }
+
+    // Face a board's snake a direction for its next tick, for
+    // stepping a board with tick() instead of run()
+    public void setHeading(int board, Heading heading) {
+        mHeading[board] = (byte) heading.ordinal();
+    }
+
+    public Heading getHeading(int board) {
+        return HEADINGS[mHeading[board]];
+    }
+
+    public int getAppleCell(int board) {
+        return mApple[board];
+    }
+
+    public int getScore(int board) {
+        return mScore[board];
+    }
+
+    public int getTick(int board) {
+        return mTick[board];
+    }
+
+    public long getSeed(int board) {
+        return mSeed[board];
+    }
+
+    public boolean isOver(int board) {
+        return mOver[board];
+    }
+
+    public boolean isWon(int board) {
+        return mWon[board];
+    }
+
+    // How many boards haven't finished their game
+    public int getRunningCount() {
+        int running = 0;
+        for (int board = 0; board < mBoards; board++) {
+            if (!mOver[board]) {
+                running++;
+            }
+        }
+        return running;
+    }
+
+    public int getBoardCount() {
+        return mBoards;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+}
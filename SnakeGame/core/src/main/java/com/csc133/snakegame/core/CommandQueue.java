@@ -0,0 +1,101 @@
+package com.csc133.snakegame.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A fixed size queue of int commands handed from the UI thread to the
+// game thread without locks or allocation. Only the game thread takes
+// commands out, so it is the only thread that ever changes game state.
+// Putting commands in is safe from any thread: each sender claims its
+// own slot first, then publishes it by bumping that slot's sequence.
+// A command can carry a long with it, like when the input was made
+public class CommandQueue {
+
+    // Returned by poll when there is nothing waiting
+    public static final int EMPTY = -1;
+
+    private final int[] mCommands;
+    private final long[] mArguments;
+    private final int mMask;
+
+    // Each slot's sequence says whose turn it is.
+    // Equal to a sender's position when the slot is free for it,
+    // one more than that once the command in it can be read
+    private final AtomicLongArray mSequence;
+
+    // The next position to hand out to a sender
+    private final AtomicLong mTail = new AtomicLong();
+
+    // The next position to read, and what came with the command
+    // read last. Only the game thread touches them
+    private long mHead;
+    private long mArgument;
+
+    // capacity is rounded up to a power of two
+    public CommandQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mCommands = new int[size];
+        mArguments = new long[size];
+        mMask = size - 1;
+        mSequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            mSequence.set(i, i);
+        }
+    }
+
+    // Add a command. Returns false if the queue is full
+    public boolean offer(int command) {
+        return offer(command, 0);
+    }
+
+    // Add a command with a value for it
+    public boolean offer(int command, long argument) {
+        long position;
+        int slot;
+        while (true) {
+            position = mTail.get();
+            slot = (int) position & mMask;
+            long sequence = mSequence.get(slot);
+            if (sequence == position) {
+                // The slot is free, try to claim it
+                if (mTail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position) {
+                // Still holding a command from a lap ago
+                return false;
+            }
+            // Another sender got there first, try the next position
+        }
+        mCommands[slot] = command;
+        mArguments[slot] = argument;
+        mSequence.lazySet(slot, position + 1);
+        return true;
+    }
+
+    // Take the oldest command, or EMPTY if there are none.
+    // Only call this from the game thread
+    public int poll() {
+        int slot = (int) mHead & mMask;
+        if (mSequence.get(slot) != mHead + 1) {
+            return EMPTY;
+        }
+        int command = mCommands[slot];
+        mArgument = mArguments[slot];
+
+        // Free the slot for the sender one lap ahead
+        mSequence.lazySet(slot, mHead + mCommands.length);
+        mHead++;
+        return command;
+    }
+
+    // The value sent with the command poll last returned, 0 if none.
+    // Only call this from the game thread
+    public long getArgument() {
+        return mArgument;
+    }
+
+    public int capacity() {
+        return mCommands.length;
+    }
+}
@@ -0,0 +1,82 @@
+package com.csc133.snakegame.core;
+
+// The block of cells that changed since the screen was last drawn.
+// The simulation adds every cell it touches and the renderer only
+// repaints the rectangle that covers them
+public class DirtyRegion {
+
+    private final int mWidth;
+    private final int mHeight;
+
+    // The bounds of the changed cells, right and bottom exclusive
+    private int mLeft;
+    private int mTop;
+    private int mRight;
+    private int mBottom;
+
+    public DirtyRegion(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        addAll();
+    }
+
+    // A cell has changed. Cells off the board are ignored
+    public void add(int cell) {
+        if (cell < 0 || cell >= mWidth * mHeight) {
+            return;
+        }
+        int x = cell % mWidth;
+        int y = cell / mWidth;
+        if (isEmpty()) {
+            mLeft = x;
+            mTop = y;
+            mRight = x + 1;
+            mBottom = y + 1;
+            return;
+        }
+        mLeft = Math.min(mLeft, x);
+        mTop = Math.min(mTop, y);
+        mRight = Math.max(mRight, x + 1);
+        mBottom = Math.max(mBottom, y + 1);
+    }
+
+    // Everything has changed, like at the start of a game
+    public void addAll() {
+        mLeft = 0;
+        mTop = 0;
+        mRight = mWidth;
+        mBottom = mHeight;
+    }
+
+    // Called once the changes have been drawn
+    public void clear() {
+        mLeft = 0;
+        mTop = 0;
+        mRight = 0;
+        mBottom = 0;
+    }
+
+    public boolean isEmpty() {
+        return mRight <= mLeft || mBottom <= mTop;
+    }
+
+    public boolean isFull() {
+        return mLeft == 0 && mTop == 0 && mRight == mWidth && mBottom == mHeight;
+    }
+
+    public int getLeft() {
+        return mLeft;
+    }
+
+    public int getTop() {
+        return mTop;
+    }
+
+    public int getRight() {
+        return mRight;
+    }
+
+    public int getBottom() {
+        return mBottom;
+    }
+}
@@ -0,0 +1,180 @@
+package com.csc133.snakegame.core;
+
+// Decides when the game loop should run a simulation tick and when it
+// should draw. Time is banked in an accumulator and spent in fixed sized
+// ticks, frames are drawn at their own rate in between, and the loop
+// sleeps until the next deadline instead of spinning.
+public class FrameScheduler {
+
+    // Where the scheduler gets the time from and how it waits.
+    // The game uses the system clock, tests can pass in a fake one
+    public interface Clock {
+        long nanoTime();
+        void sleepNanos(long nanos) throws InterruptedException;
+    }
+
+    // The real clock used by the game
+    public static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void sleepNanos(long nanos) throws InterruptedException {
+            Thread.sleep(nanos / 1_000_000L, (int) (nanos % 1_000_000L));
+        }
+    };
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Clock mClock;
+
+    // How long one simulation tick lasts
+    private long mTickNanos;
+
+    // How long one rendered frame lasts
+    private long mFrameNanos;
+
+    // The most ticks we will run to catch up after a slow frame.
+    // Anything beyond this is thrown away so the game slows down
+    // instead of spiralling into ever longer catch up frames
+    private final int mMaxCatchUpTicks;
+
+    // Time that has passed but not yet been turned into ticks
+    private long mAccumulator;
+    private long mLastTime;
+
+    // When the next frame should be drawn
+    private long mNextFrameTime;
+
+    // How many ticks were thrown away by the catch up limit
+    private long mDroppedTicks;
+
+    // How many ticks ran late, back to back with an earlier one
+    // because the loop fell behind
+    private long mLateTicks;
+
+    public FrameScheduler(Clock clock, int ticksPerSecond, int framesPerSecond,
+                   int maxCatchUpTicks) {
+        mClock = clock;
+        mMaxCatchUpTicks = maxCatchUpTicks;
+        setTickRate(ticksPerSecond);
+        setFrameRate(framesPerSecond);
+        reset();
+    }
+
+    // How many simulation ticks to run each second
+    public void setTickRate(int ticksPerSecond) {
+        mTickNanos = NANOS_PER_SECOND / ticksPerSecond;
+    }
+
+    // How many frames to draw each second while something is animating
+    public void setFrameRate(int framesPerSecond) {
+        mFrameNanos = NANOS_PER_SECOND / framesPerSecond;
+    }
+
+    // Start timing from now with nothing banked.
+    // Called when a game starts and when we come back from a pause
+    // so the paused time doesn't turn into a burst of ticks
+    public void reset() {
+        mLastTime = mClock.nanoTime();
+        mAccumulator = 0;
+        mNextFrameTime = mLastTime;
+    }
+
+    // Work out how many ticks are due since the last call
+    public int advance() {
+        long now = mClock.nanoTime();
+        mAccumulator += now - mLastTime;
+        mLastTime = now;
+
+        int ticks = (int) Math.min(mAccumulator / mTickNanos, Integer.MAX_VALUE);
+        mAccumulator -= (long) ticks * mTickNanos;
+
+        // Too far behind, keep the bounded amount and drop the rest
+        if (ticks > mMaxCatchUpTicks) {
+            mDroppedTicks += ticks - mMaxCatchUpTicks;
+            ticks = mMaxCatchUpTicks;
+        }
+
+        // Only the first was on time, the rest should have run already
+        if (ticks > 1) {
+            mLateTicks += ticks - 1;
+        }
+        return ticks;
+    }
+
+    // How long until the next tick is due
+    public long nanosUntilNextTick() {
+        long banked = mAccumulator + (mClock.nanoTime() - mLastTime);
+        return Math.max(0, mTickNanos - banked);
+    }
+
+    // How far we are between the last tick and the next one,
+    // from 0 just after a tick up to 1 when the next one is due.
+    // The renderer uses this to slide the snake between cells
+    public float interpolation() {
+        long banked = mAccumulator + (mClock.nanoTime() - mLastTime);
+        return Math.min(1f, (float) banked / mTickNanos);
+    }
+
+    // Has enough time passed to draw another animated frame
+    public boolean frameDue() {
+        return mClock.nanoTime() >= mNextFrameTime;
+    }
+
+    // Call after drawing a frame to set up the next frame deadline
+    public void frameDrawn() {
+        long now = mClock.nanoTime();
+        mNextFrameTime += mFrameNanos;
+
+        // If we fell behind don't try to make up the missed frames
+        if (mNextFrameTime <= now) {
+            mNextFrameTime = now + mFrameNanos;
+        }
+    }
+
+    // How long until the next tick is due, or the next frame if
+    // something on screen is animating. For loops that do their own
+    // waiting instead of calling waitForNextDeadline
+    public long nanosUntilNextDeadline(boolean animating) {
+        long wait = nanosUntilNextTick();
+        if (animating) {
+            wait = Math.min(wait, mNextFrameTime - mClock.nanoTime());
+        }
+        return Math.max(0, wait);
+    }
+
+    // Sleep until the next tick is due, or until the next frame
+    // if something on screen is animating.
+    // Returns false if the thread was interrupted while sleeping
+    public boolean waitForNextDeadline(boolean animating) {
+        long wait = nanosUntilNextDeadline(animating);
+        if (wait > 0) {
+            try {
+                mClock.sleepNanos(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getTickNanos() {
+        return mTickNanos;
+    }
+
+    public long getFrameNanos() {
+        return mFrameNanos;
+    }
+
+    public long getDroppedTicks() {
+        return mDroppedTicks;
+    }
+
+    public long getLateTicks() {
+        return mLateTicks;
+    }
+}
@@ -0,0 +1,189 @@
+package com.csc133.snakegame.core;
+
+import java.util.Random;
+
+// The whole game without any drawing, sound or Android classes.
+// Everything is decided by the seed and the turns made, so a game can
+// be run again exactly, and it runs as fast as the JVM can go
+public class GameEngine {
+
+    // What happened during a tick, returned as bit flags
+    public static final int EVENT_ATE_APPLE = 1;
+    public static final int EVENT_DIED = 2;
+    public static final int EVENT_WON = 4;
+
+    // The size in cells of the playable area
+    private final int mWidth;
+    private final int mHeight;
+
+    private final SnakeModel mSnake;
+    private final AppleModel mApple;
+
+    // The cells changed since the renderer last cleared it
+    private final DirtyRegion mDirty;
+
+    // How many points does the player have
+    private int mScore;
+
+    // Set once the snake has died or filled the board
+    private boolean mOver;
+    private boolean mWon;
+
+    // Every game gets its own seed from this, so any one game
+    // can be played again from just its seed and its turns
+    private final Random mSeeds;
+    private long mSeed;
+
+    // How many ticks this game has run
+    private int mTick;
+
+    // Writes down every turn when a replay is being recorded
+    private ReplayRecorder mRecorder;
+    private final SnakeModel.HeadingListener mTurnRecorder = new SnakeModel.HeadingListener() {
+        @Override
+        public void onHeadingChanged(Heading heading) {
+            mRecorder.record(mTick, heading);
+        }
+    };
+
+    public GameEngine(int width, int height, long seed) {
+        mWidth = width;
+        mHeight = height;
+        mSnake = new SnakeModel(width, height);
+        mApple = new AppleModel(width, seed);
+        mDirty = new DirtyRegion(width, height);
+        mSeeds = new Random(seed);
+        newGame();
+    }
+
+    // Start again with a fresh snake and apple,
+    // using the next seed for this engine
+    public void newGame() {
+        newGame(mSeeds.nextLong());
+    }
+
+    // Start again from a seed so the game plays out the same way
+    public void newGame(long seed) {
+        mSeed = seed;
+        mApple.setSeed(seed);
+        mTick = 0;
+        if (mRecorder != null) {
+            mRecorder.begin(mWidth, mHeight, seed);
+        }
+
+        mSnake.reset();
+        mApple.reset();
+        mApple.spawn(mSnake.getOccupancy());
+        mScore = 0;
+        mOver = false;
+        mWon = false;
+
+        // The whole board needs drawing again
+        mDirty.addAll();
+    }
+
+    // Record every game from now on, or stop with null. A game that
+    // has already started is left out, recording begins with the next.
+    // The recorder holds the current game until the next starts
+    public void setRecorder(ReplayRecorder recorder) {
+        mRecorder = recorder;
+        mSnake.setHeadingListener(recorder != null ? mTurnRecorder : null);
+        if (recorder != null && mTick == 0) {
+            recorder.begin(mWidth, mHeight, mSeed);
+        }
+    }
+
+    // Move the game on by one step.
+    // Returns the EVENT flags for what happened.
+    // BatchEngine.tick(board) plays the same step on its flat arrays.
+    // The move rules are shared through Rules, but the order of the
+    // steps and how the apple is placed are copied there, so change
+    // them in both
+    public int tick() {
+        if (mOver) {
+            return 0;
+        }
+        int events = 0;
+        mTick++;
+
+        // On the frames before this tick the head and tail were still
+        // partly in the cells they slid out of. Those are body or
+        // background now and need repainting once more
+        mDirty.add(mSnake.getPrevHead());
+        mDirty.add(mSnake.getPrevTail());
+
+        mSnake.move(); // Move the snake
+
+        // The head moved on from one cell to the next
+        // and the tail left one cell for another
+        mDirty.add(mSnake.getPrevHead());
+        mDirty.add(mSnake.getHeadCell());
+        mDirty.add(mSnake.getPrevTail());
+        mDirty.add(mSnake.getBody().tailCell());
+
+        // Check if the snake has eaten an apple
+        if (mSnake.checkDinner(mApple.getCell())) {
+            mScore += 1; // Increase the score
+            events |= EVENT_ATE_APPLE;
+
+            // Respawn the apple. If there is nowhere
+            // left to put it the snake fills the board
+            if (!mApple.spawn(mSnake.getOccupancy())) {
+                mWon = true;
+                mOver = true;
+                events |= EVENT_WON;
+            }
+            mDirty.add(mApple.getCell());
+        }
+
+        // Check if the snake has died
+        if (mSnake.detectDeath()) {
+            mOver = true;
+            events |= EVENT_DIED;
+        }
+        return events;
+    }
+
+    public SnakeModel getSnake() {
+        return mSnake;
+    }
+
+    public AppleModel getApple() {
+        return mApple;
+    }
+
+    // The cells changed by ticks since the renderer last cleared it
+    public DirtyRegion getDirtyRegion() {
+        return mDirty;
+    }
+
+    public int getScore() {
+        return mScore;
+    }
+
+    // The seed this game started from
+    public long getSeed() {
+        return mSeed;
+    }
+
+    // How many ticks this game has run
+    public int getTick() {
+        return mTick;
+    }
+
+    public boolean isOver() {
+        return mOver;
+    }
+
+    public boolean isWon() {
+        return mWon;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+}
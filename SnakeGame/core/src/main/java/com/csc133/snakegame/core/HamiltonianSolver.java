@@ -0,0 +1,139 @@
+package com.csc133.snakegame.core;
+
+// Steers the snake so it always fills the board. Up front it lays out
+// a cycle that visits every cell once and comes back to the start, and
+// a snake that only ever follows it can never run into itself.
+// Following it all the way round for every apple is slow, so while the
+// snake is short it cuts across to a cell further along the cycle when
+// one is next to the head. A shortcut is only taken if it doesn't jump
+// past the apple and leaves the body behind it on the cycle, with room
+// to grow, so the snake stays as safe as if it had gone the long way.
+// Once the snake covers half the board it just follows the cycle.
+// A grid only has such a cycle if it has an even number of cells
+public class HamiltonianSolver implements Pilot {
+
+    // Cells kept clear between the head and the tail on the cycle
+    // after a shortcut, for the tail staying put while it grows
+    private static final int SHORTCUT_MARGIN = 3;
+
+    private final int mWidth;
+    private final int mCells;
+
+    // Where each cell comes on the cycle, and the cell after it
+    private final int[] mOrder;
+    private final int[] mNext;
+
+    private boolean mShortcuts = true;
+
+    public HamiltonianSolver(int width, int height) {
+        if (!hasCycle(width, height)) {
+            throw new IllegalArgumentException(
+                    "No cycle covers a " + width + "x" + height + " board");
+        }
+        mWidth = width;
+        mCells = width * height;
+        mOrder = new int[mCells];
+        mNext = new int[mCells];
+
+        // Walk the cycle once from the top left corner
+        int cell = 0;
+        for (int i = 0; i < mCells; i++) {
+            mOrder[cell] = i;
+            int next = height % 2 == 0
+                    ? nextOnRows(cell % width, cell / width, width, height)
+                    : nextOnColumns(cell % width, cell / width, width, height);
+            mNext[cell] = next;
+            cell = next;
+        }
+    }
+
+    // Is there a cycle through every cell of a board this size
+    public static boolean hasCycle(int width, int height) {
+        return width >= 2 && height >= 2 && (width % 2 == 0 || height % 2 == 0);
+    }
+
+    // Only follow the cycle, never cut across it
+    public void setShortcutsEnabled(boolean enabled) {
+        mShortcuts = enabled;
+    }
+
+    @Override
+    public Heading steer(GameEngine engine) {
+        SnakeBody body = engine.getSnake().getBody();
+        int head = body.headCell();
+        int next = mNext[head];
+
+        int apple = engine.getApple().getCell();
+        if (mShortcuts && apple != AppleModel.HIDDEN && body.length() * 2 < mCells) {
+            // How far along the cycle it can go: not past the apple,
+            // and not up to where the tail is now
+            int tail = body.tailCell();
+            int toTail = tail == head ? mCells : distance(head, tail);
+            int limit = Math.min(distance(head, apple), toTail - SHORTCUT_MARGIN);
+            int best = 1;
+            int x = head % mWidth;
+            int y = head / mWidth;
+            OccupancyGrid occupancy = body.getOccupancy();
+            for (int i = 0; i < 4; i++) {
+                int nx = x + (i == 0 ? 1 : i == 1 ? -1 : 0);
+                int ny = y + (i == 2 ? 1 : i == 3 ? -1 : 0);
+                if (occupancy.isOccupied(nx, ny)) {
+                    continue;
+                }
+                int cell = ny * mWidth + nx;
+                int ahead = distance(head, cell);
+                if (ahead > best && ahead <= limit) {
+                    best = ahead;
+                    next = cell;
+                }
+            }
+        }
+        return headingTo(head, next);
+    }
+
+    // How many steps along the cycle it is from one cell to another
+    private int distance(int from, int to) {
+        int steps = mOrder[to] - mOrder[from];
+        return steps < 0 ? steps + mCells : steps;
+    }
+
+    private Heading headingTo(int from, int to) {
+        int step = to - from;
+        if (step == 1) {
+            return Heading.RIGHT;
+        }
+        if (step == -1) {
+            return Heading.LEFT;
+        }
+        return step > 0 ? Heading.DOWN : Heading.UP;
+    }
+
+    // For an even number of rows. Rows are swept back and forth over
+    // columns 1 and up, then column 0 leads back to the top
+    private static int nextOnRows(int x, int y, int width, int height) {
+        if (x == 0) {
+            return y == 0 ? 1 : (y - 1) * width;
+        }
+        if (y % 2 == 0) {
+            return x < width - 1 ? y * width + x + 1 : (y + 1) * width + x;
+        }
+        if (x > 1) {
+            return y * width + x - 1;
+        }
+        return y < height - 1 ? (y + 1) * width + x : y * width;
+    }
+
+    // The same turned on its side, for an even number of columns
+    private static int nextOnColumns(int x, int y, int width, int height) {
+        if (y == 0) {
+            return x == 0 ? width : x - 1;
+        }
+        if (x % 2 == 0) {
+            return y < height - 1 ? (y + 1) * width + x : y * width + x + 1;
+        }
+        if (y > 1) {
+            return (y - 1) * width + x;
+        }
+        return x < width - 1 ? y * width + x + 1 : x;
+    }
+}
@@ -0,0 +1,57 @@
+package com.csc133.snakegame.core;
+
+// The direction the snake is moving in
+public enum Heading {
+    UP(0, -1), RIGHT(1, 0), DOWN(0, 1), LEFT(-1, 0);
+
+    // How far one move goes in each direction
+    public final int dx;
+    public final int dy;
+
+    Heading(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    // A quarter turn clockwise
+    public Heading rotateRight() {
+        switch (this) {
+            case UP:
+                return RIGHT;
+            case RIGHT:
+                return DOWN;
+            case DOWN:
+                return LEFT;
+            default:
+                return UP;
+        }
+    }
+
+    // A quarter turn anticlockwise
+    public Heading rotateLeft() {
+        switch (this) {
+            case UP:
+                return LEFT;
+            case LEFT:
+                return DOWN;
+            case DOWN:
+                return RIGHT;
+            default:
+                return UP;
+        }
+    }
+
+    // The direction straight back the way we came
+    public Heading opposite() {
+        switch (this) {
+            case UP:
+                return DOWN;
+            case RIGHT:
+                return LEFT;
+            case DOWN:
+                return UP;
+            default:
+                return RIGHT;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.csc133.snakegame.core;
+
+// Counts how long something takes, in nanoseconds, in fixed buckets.
+// It works like HdrHistogram but much smaller: each power of two is
+// split into 16 equal buckets, so any value is reported to within
+// about 6% of what was recorded. Recording is a few shifts and an
+// increment with no allocation, cheap enough to do every frame
+public class LatencyHistogram {
+
+    // 16 buckets per power of two
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Anything past 2^36ns, about 68 seconds, lands in the last bucket
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long[] mCounts = new long[BUCKETS];
+    private long mCount;
+    private long mTotal;
+    private long mMax;
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        mCounts[bucket(nanos)]++;
+        mCount++;
+        mTotal += nanos;
+        if (nanos > mMax) {
+            mMax = nanos;
+        }
+    }
+
+    // The value percentile percent of recordings were at or under.
+    // Returns the top of the bucket it falls in, 0 if nothing recorded
+    public long valueAtPercentile(double percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * mCount);
+        rank = Math.max(1, Math.min(rank, mCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += mCounts[i];
+            if (seen >= rank) {
+                // The last bucket has no top, the max is the best answer
+                return i == BUCKETS - 1 ? mMax : Math.min(highestInBucket(i), mMax);
+            }
+        }
+        return mMax;
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public long getMean() {
+        return mCount == 0 ? 0 : mTotal / mCount;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            mCounts[i] = 0;
+        }
+        mCount = 0;
+        mTotal = 0;
+        mMax = 0;
+    }
+
+    // Small values get a bucket each. Bigger ones are placed by
+    // their top bit then the next four bits below it
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    // The biggest value that lands in a bucket
+    static long highestInBucket(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long lowest = (long) (SUB_BUCKETS + sub) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
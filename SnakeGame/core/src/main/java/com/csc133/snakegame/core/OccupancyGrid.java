@@ -0,0 +1,104 @@
+package com.csc133.snakegame.core;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// One bit per cell on the board, set while the snake covers that cell.
+// The snake keeps it up to date as the head enters a cell and the tail
+// leaves one, so asking whether a cell is taken is a single lookup.
+// Alongside the bits is a list of every free cell so a random free cell
+// can be picked straight away however full the board is
+public class OccupancyGrid {
+
+    private final int mWidth;
+    private final int mHeight;
+
+    // 64 cells to each long
+    private final long[] mBits;
+
+    // The free cells in no particular order, how many there are,
+    // and where each cell sits in the list. A cell is taken out by
+    // moving the last free cell into its slot so nothing shifts
+    private final int[] mFreeCells;
+    private final int[] mFreeIndex;
+    private int mFreeCount;
+
+    public OccupancyGrid(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mBits = new long[(width * height + 63) >>> 6];
+        mFreeCells = new int[width * height];
+        mFreeIndex = new int[width * height];
+        clearAll();
+    }
+
+    public void set(int cell) {
+        if (isOccupied(cell)) {
+            return;
+        }
+        mBits[cell >>> 6] |= 1L << cell;
+
+        // Swap the last free cell into this one's slot
+        int index = mFreeIndex[cell];
+        int last = mFreeCells[--mFreeCount];
+        mFreeCells[index] = last;
+        mFreeIndex[last] = index;
+    }
+
+    public void clear(int cell) {
+        if (!isOccupied(cell)) {
+            return;
+        }
+        mBits[cell >>> 6] &= ~(1L << cell);
+
+        // Add it to the end of the free list
+        mFreeCells[mFreeCount] = cell;
+        mFreeIndex[cell] = mFreeCount;
+        mFreeCount++;
+    }
+
+    // Empty the whole board
+    public void clearAll() {
+        Arrays.fill(mBits, 0L);
+        for (int i = 0; i < mFreeCells.length; i++) {
+            mFreeCells[i] = i;
+            mFreeIndex[i] = i;
+        }
+        mFreeCount = mFreeCells.length;
+    }
+
+    // Every free cell is equally likely.
+    // Returns -1 when the snake covers the whole board.
+    // BatchEngine.randomFreeCell picks the same way with its own copy
+    // of Random's generator, keep the two alike
+    public int randomFreeCell(Random random) {
+        if (mFreeCount == 0) {
+            return -1;
+        }
+        return mFreeCells[random.nextInt(mFreeCount)];
+    }
+
+    public int getFreeCount() {
+        return mFreeCount;
+    }
+
+    public boolean isOccupied(int cell) {
+        return (mBits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    // Anything off the board counts as occupied
+    public boolean isOccupied(int x, int y) {
+        if (x < 0 || x >= mWidth || y < 0 || y >= mHeight) {
+            return true;
+        }
+        return isOccupied(y * mWidth + x);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+}
@@ -0,0 +1,7 @@
+package com.csc133.snakegame.core;
+
+// Something that steers the snake instead of the player
+public interface Pilot {
+    // The heading for the engine's snake to take on the next tick
+    Heading steer(GameEngine engine);
+}
@@ -0,0 +1,190 @@
+package com.csc133.snakegame.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// A recorded game: the board size, the seed and every turn made.
+// That is all it takes to play the game again exactly, because
+// everything else the engine does follows from them.
+//
+// The binary form is small, a few bytes per turn:
+//   magic "SNRP", version byte
+//   width, height as varints
+//   seed as 8 bytes, high byte first
+//   ticks played and final score as varints
+//   turn count as a varint, then for each turn a varint of
+//   (ticks since the last turn << 2) | heading ordinal
+public final class Replay {
+
+    private static final byte[] MAGIC = {'S', 'N', 'R', 'P'};
+    private static final int VERSION = 1;
+
+    private final int mWidth;
+    private final int mHeight;
+    private final long mSeed;
+
+    // The turn at i happened before tick mTurnTicks[i] + 1 ran
+    private final int[] mTurnTicks;
+    private final Heading[] mTurnHeadings;
+
+    // How the game ended up, to check a playback against
+    private final int mTicks;
+    private final int mScore;
+
+    Replay(int width, int height, long seed, int[] turnTicks, Heading[] turnHeadings,
+           int ticks, int score) {
+        mWidth = width;
+        mHeight = height;
+        mSeed = seed;
+        mTurnTicks = turnTicks;
+        mTurnHeadings = turnHeadings;
+        mTicks = ticks;
+        mScore = score;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public long getSeed() {
+        return mSeed;
+    }
+
+    public int getTurnCount() {
+        return mTurnTicks.length;
+    }
+
+    // How many ticks had run when turn i was made
+    public int getTurnTick(int i) {
+        return mTurnTicks[i];
+    }
+
+    public Heading getTurnHeading(int i) {
+        return mTurnHeadings[i];
+    }
+
+    // How many ticks the recorded game ran for
+    public int getTicks() {
+        return mTicks;
+    }
+
+    public int getScore() {
+        return mScore;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarint(out, mWidth);
+        writeVarint(out, mHeight);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (mSeed >>> shift));
+        }
+        writeVarint(out, mTicks);
+        writeVarint(out, mScore);
+        writeVarint(out, mTurnTicks.length);
+        int lastTick = 0;
+        for (int i = 0; i < mTurnTicks.length; i++) {
+            writeVarint(out, (mTurnTicks[i] - lastTick) << 2 | mTurnHeadings[i].ordinal());
+            lastTick = mTurnTicks[i];
+        }
+    }
+
+    public byte[] toByteArray() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + mTurnTicks.length * 2);
+        try {
+            writeTo(out);
+        } catch (IOException e) {
+            // A ByteArrayOutputStream never throws
+            throw new AssertionError(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static Replay readFrom(InputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        for (int i = 0; i < magic.length; i++) {
+            magic[i] = (byte) readByte(in);
+        }
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a replay");
+        }
+        int version = readByte(in);
+        if (version != VERSION) {
+            throw new IOException("Unknown replay version " + version);
+        }
+
+        int width = readVarint(in);
+        int height = readVarint(in);
+        long seed = 0;
+        for (int i = 0; i < 8; i++) {
+            seed = seed << 8 | readByte(in);
+        }
+        int ticks = readVarint(in);
+        int score = readVarint(in);
+
+        int count = readVarint(in);
+
+        // A damaged file could ask for an array that can't be made,
+        // or a board a game can't be played on. The snake takes at
+        // most one turn a tick, so there can't be more turns than ticks
+        if (width <= 0 || height <= 0 || ticks < 0 || count < 0 || count > ticks) {
+            throw new IOException("Corrupt replay header: " + width + "x" + height
+                    + ", " + ticks + " ticks, " + count + " turns");
+        }
+        int[] turnTicks = new int[count];
+        Heading[] turnHeadings = new Heading[count];
+        Heading[] headings = Heading.values();
+        int tick = 0;
+        for (int i = 0; i < count; i++) {
+            int turn = readVarint(in);
+            tick += turn >>> 2;
+            turnTicks[i] = tick;
+            turnHeadings[i] = headings[turn & 3];
+        }
+        return new Replay(width, height, seed, turnTicks, turnHeadings, ticks, score);
+    }
+
+    public static Replay fromByteArray(byte[] bytes) throws IOException {
+        return readFrom(new ByteArrayInputStream(bytes));
+    }
+
+    // Seven bits at a time, low bits first, top bit set
+    // on every byte except the last
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte(in);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint too long");
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Replay cut short");
+        }
+        return b;
+    }
+}
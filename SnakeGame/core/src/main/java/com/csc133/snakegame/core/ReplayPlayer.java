@@ -0,0 +1,40 @@
+package com.csc133.snakegame.core;
+
+// Plays a Replay back as fast as possible with nothing drawn.
+// Handy for checking recorded games still end the same way after a
+// change to the engine, or for profiling a pile of real games.
+// The engine is kept between replays of the same board size
+public class ReplayPlayer {
+
+    private GameEngine mEngine;
+
+    // Run the whole replay. Returns the engine as the game ended,
+    // which stays valid until the next replay is played
+    public GameEngine play(Replay replay) {
+        if (mEngine == null || mEngine.getWidth() != replay.getWidth()
+                || mEngine.getHeight() != replay.getHeight()) {
+            mEngine = new GameEngine(replay.getWidth(), replay.getHeight(), replay.getSeed());
+        }
+        GameEngine engine = mEngine;
+        engine.newGame(replay.getSeed());
+
+        SnakeModel snake = engine.getSnake();
+        int turn = 0;
+        int turns = replay.getTurnCount();
+        while (!engine.isOver() && engine.getTick() < replay.getTicks()) {
+            // Make the turns that came before this tick
+            while (turn < turns && replay.getTurnTick(turn) == engine.getTick()) {
+                snake.setHeading(replay.getTurnHeading(turn));
+                turn++;
+            }
+            engine.tick();
+        }
+        return engine;
+    }
+
+    // Does the replay still end the way it did when it was recorded
+    public boolean matches(Replay replay) {
+        GameEngine engine = play(replay);
+        return engine.getTick() == replay.getTicks() && engine.getScore() == replay.getScore();
+    }
+}
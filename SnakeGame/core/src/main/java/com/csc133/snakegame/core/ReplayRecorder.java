@@ -0,0 +1,50 @@
+package com.csc133.snakegame.core;
+
+import java.util.Arrays;
+
+// Writes down a game as it is played, for a Replay.
+// Give it to GameEngine.setRecorder and every turn is noted with the
+// tick it happened on. Turns go into arrays that only grow when they
+// are full, so recording doesn't allocate while a game is played
+public class ReplayRecorder {
+
+    private int mWidth;
+    private int mHeight;
+    private long mSeed;
+
+    private int[] mTurnTicks = new int[64];
+    private Heading[] mTurnHeadings = new Heading[64];
+    private int mCount;
+
+    // A new game has started, forget the last one
+    void begin(int width, int height, long seed) {
+        mWidth = width;
+        mHeight = height;
+        mSeed = seed;
+        mCount = 0;
+    }
+
+    // The snake turned to face heading after tick ticks
+    void record(int tick, Heading heading) {
+        if (mCount == mTurnTicks.length) {
+            mTurnTicks = Arrays.copyOf(mTurnTicks, mCount * 2);
+            mTurnHeadings = Arrays.copyOf(mTurnHeadings, mCount * 2);
+        }
+        mTurnTicks[mCount] = tick;
+        mTurnHeadings[mCount] = heading;
+        mCount++;
+    }
+
+    // How many turns have been made in this game so far
+    public int getTurnCount() {
+        return mCount;
+    }
+
+    // The game so far as a replay. Call it once the game is over
+    // to capture the whole thing
+    public Replay finish(GameEngine engine) {
+        return new Replay(mWidth, mHeight, mSeed,
+                Arrays.copyOf(mTurnTicks, mCount), Arrays.copyOf(mTurnHeadings, mCount),
+                engine.getTick(), engine.getScore());
+    }
+}
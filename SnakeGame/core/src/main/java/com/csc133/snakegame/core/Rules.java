@@ -0,0 +1,29 @@
+package com.csc133.snakegame.core;
+
+// The rules of a move, shared by GameEngine, through SnakeModel and
+// SnakeBody, and by BatchEngine's flat arrays. Both engines ask these
+// rather than each writing out its own, so a change to a rule here
+// changes it for both and they can't drift apart
+final class Rules {
+
+    private Rules() {
+    }
+
+    // Is the cell on the board. Stepping off it is fatal
+    static boolean inBounds(int x, int y, int width, int height) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    // Does putting the head on next run into the body. The tail moves
+    // out of the way first unless the snake is growing, so the head
+    // can follow right behind it
+    static boolean hitsBody(boolean nextOccupied, int next, int tail, boolean grow) {
+        return nextOccupied && (grow || next != tail);
+    }
+
+    // Does the snake get a segment longer on this move, instead of
+    // the tail following the head. It can't outgrow the board
+    static boolean lengthens(boolean grow, int length, int cells) {
+        return grow && length < cells;
+    }
+}
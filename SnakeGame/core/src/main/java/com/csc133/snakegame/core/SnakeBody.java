@@ -0,0 +1,129 @@
+package com.csc133.snakegame.core;
+
+// The cells the snake covers, stored head to tail in a circular buffer.
+// Each cell is packed into a single int as y * width + x.
+// Moving writes one new head and forgets the tail, growing just keeps
+// the tail, so a move costs the same however long the snake is.
+// An occupancy grid is kept in step so other code can ask whether
+// a cell is covered without walking the body
+public class SnakeBody {
+
+    // The size of the board in cells
+    private final int mWidth;
+    private final int mHeight;
+
+    // The ring of packed cells. The snake can never be longer
+    // than the board so that is all the room it needs
+    private final int[] mCells;
+
+    // Where the tail is in the ring and how many cells follow it
+    private int mTail;
+    private int mLength;
+
+    // Which cells the body covers
+    private final OccupancyGrid mOccupancy;
+
+    public SnakeBody(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mCells = new int[width * height];
+        mOccupancy = new OccupancyGrid(width, height);
+    }
+
+    // Start again with a single segment
+    public void reset(int x, int y) {
+        mTail = 0;
+        mLength = 1;
+        mCells[0] = cell(x, y);
+        mOccupancy.clearAll();
+        mOccupancy.set(mCells[0]);
+    }
+
+    // Remove every segment
+    public void clear() {
+        mTail = 0;
+        mLength = 0;
+        mOccupancy.clearAll();
+    }
+
+    // Would putting the head on this cell run into the body.
+    // The tail moves out of the way first unless the snake is growing
+    public boolean wouldHitItself(int cell, boolean grow) {
+        return Rules.hitsBody(mOccupancy.isOccupied(cell), cell, tailCell(), grow);
+    }
+
+    // Put a new head on the given cell.
+    // The tail is dropped unless the snake is growing
+    public void advance(int cell, boolean grow) {
+        if (Rules.lengthens(grow, mLength, mCells.length)) {
+            mLength++;
+        } else {
+            // The tail leaves before the head arrives
+            // in case the head is taking its place
+            mOccupancy.clear(mCells[mTail]);
+            mTail = wrap(mTail + 1);
+        }
+        mCells[wrap(mTail + mLength - 1)] = cell;
+        mOccupancy.set(cell);
+    }
+
+    // The packed cell of segment i, where 0 is the head
+    public int cellAt(int i) {
+        return mCells[wrap(mTail + mLength - 1 - i)];
+    }
+
+    public int headCell() {
+        return cellAt(0);
+    }
+
+    public int tailCell() {
+        return mCells[mTail];
+    }
+
+    public int length() {
+        return mLength;
+    }
+
+    public boolean isEmpty() {
+        return mLength == 0;
+    }
+
+    public int cell(int x, int y) {
+        return y * mWidth + x;
+    }
+
+    public int cellX(int cell) {
+        return cell % mWidth;
+    }
+
+    public int cellY(int cell) {
+        return cell / mWidth;
+    }
+
+    // Is this position on the board
+    public boolean inBounds(int x, int y) {
+        return Rules.inBounds(x, y, mWidth, mHeight);
+    }
+
+    // Is any part of the body on this cell
+    public boolean isOccupied(int cell) {
+        return mOccupancy.isOccupied(cell);
+    }
+
+    public OccupancyGrid getOccupancy() {
+        return mOccupancy;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    // Bring an index back inside the ring without a divide
+    private int wrap(int i) {
+        return i >= mCells.length ? i - mCells.length : i;
+    }
+}
@@ -0,0 +1,174 @@
+package com.csc133.snakegame.core;
+
+// Where the snake is and where it is going, without any drawing.
+// The app's Snake class draws whatever this describes
+public class SnakeModel {
+
+    // The location in the grid of all the segments
+    private final SnakeBody mBody;
+
+    // Start by heading to the right
+    private Heading mHeading = Heading.RIGHT;
+
+    // How many more moves the tail should stay put for
+    private int mPendingGrowth;
+
+    // Set when the head tried to leave the board
+    // or run into the body
+    private boolean mHitWall;
+    private boolean mHitSelf;
+
+    // Told about every turn, so they can be recorded
+    private HeadingListener mHeadingListener;
+
+    // Where the head and the tail were before the last move.
+    // Used to slide them smoothly between cells when drawing
+    // faster than the snake moves
+    private int mPrevHead;
+    private int mPrevTail;
+
+    public SnakeModel(int width, int height) {
+        // Room for a snake that fills the whole grid
+        mBody = new SnakeBody(width, height);
+    }
+
+    // Get the snake ready for a new game
+    public void reset() {
+        // Reset the heading
+        mHeading = Heading.RIGHT;
+
+        // Start with a single snake segment in the middle
+        mBody.reset(mBody.getWidth() / 2, mBody.getHeight() / 2);
+        mPendingGrowth = 0;
+        mHitWall = false;
+        mHitSelf = false;
+        rememberEnds();
+    }
+
+    // Note where the head and tail are before they move
+    private void rememberEnds() {
+        mPrevHead = mBody.headCell();
+        mPrevTail = mBody.tailCell();
+    }
+
+    public void move() {
+        if (mBody.isEmpty() || mHitWall || mHitSelf) {
+            // Nothing to move if there are no segments
+            // or the snake has already crashed
+            return;
+        }
+        rememberEnds();
+
+        // Work out where the head goes next
+        int head = mBody.headCell();
+        int x = mBody.cellX(head) + mHeading.dx;
+        int y = mBody.cellY(head) + mHeading.dy;
+
+        // Leaving the grid is fatal, leave the snake where it is
+        // and let detectDeath report it
+        if (!mBody.inBounds(x, y)) {
+            mHitWall = true;
+            return;
+        }
+
+        // Running into the body is fatal too. One look at the
+        // occupancy grid tells us, no need to walk the body
+        boolean grow = mPendingGrowth > 0;
+        int next = mBody.cell(x, y);
+        if (mBody.wouldHitItself(next, grow)) {
+            mHitSelf = true;
+            return;
+        }
+
+        // Put the head on the new cell. The rest of the body
+        // follows for free because only the tail is dropped,
+        // and the tail stays put while there is growing to do
+        if (grow) {
+            mPendingGrowth--;
+        }
+        mBody.advance(next, grow);
+    }
+
+    public boolean detectDeath() {
+        if (mBody.isEmpty()) {
+            // Can't die if there are no segments
+            return false;
+        }
+
+        // Hit any of the edges or eaten itself?
+        // Both were found by move when the head tried to go there
+        return mHitWall || mHitSelf;
+    }
+
+    // Has the head reached the apple
+    public boolean checkDinner(int appleCell) {
+        if (mBody.isEmpty()) {
+            // No head to check for dinner
+            return false;
+        }
+        if (mBody.headCell() == appleCell) {
+            // Grow by keeping the tail where it is on the next move
+            mPendingGrowth++;
+            return true;
+        }
+        return false;
+    }
+
+    // Make the snake longer by this many segments over the next moves.
+    // Lets tests and benchmarks build a long snake without eating
+    public void grow(int segments) {
+        mPendingGrowth += segments;
+    }
+
+    // Rotate right or left a quarter turn
+    public void switchHeading(boolean rotateRight) {
+        setHeading(rotateRight ? mHeading.rotateRight() : mHeading.rotateLeft());
+    }
+
+    // Face a direction directly
+    public void setHeading(Heading heading) {
+        if (heading == mHeading) {
+            return;
+        }
+        mHeading = heading;
+        if (mHeadingListener != null) {
+            mHeadingListener.onHeadingChanged(heading);
+        }
+    }
+
+    // Be told whenever the heading changes, or null to stop.
+    // Going back to the right for a new game isn't a change
+    public void setHeadingListener(HeadingListener listener) {
+        mHeadingListener = listener;
+    }
+
+    public interface HeadingListener {
+        void onHeadingChanged(Heading heading);
+    }
+
+    public Heading getHeading() {
+        return mHeading;
+    }
+
+    public SnakeBody getBody() {
+        return mBody;
+    }
+
+    // Which cells the snake covers, for anything else
+    // that needs to know where the snake is
+    public OccupancyGrid getOccupancy() {
+        return mBody.getOccupancy();
+    }
+
+    public int getHeadCell() {
+        return mBody.headCell();
+    }
+
+    public int getPrevHead() {
+        return mPrevHead;
+    }
+
+    public int getPrevTail() {
+        return mPrevTail;
+    }
+}
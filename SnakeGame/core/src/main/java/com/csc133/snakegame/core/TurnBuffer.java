@@ -0,0 +1,102 @@
+package com.csc133.snakegame.core;
+
+// Turns the player has made that the snake hasn't taken yet. The
+// snake only moves once a tick, so two quick turns inside one tick
+// used to overwrite each other, or add up to turning straight back
+// into the body. Here each turn waits for a tick of its own.
+// A turn is checked against the way the snake will be facing when it
+// comes up: the way it is already going, or straight back, can't be
+// used and is dropped. So is a turn when the buffer is full, which
+// keeps the snake from acting on inputs long after they were made.
+// Every turn carries the time it was made so the tick that takes it
+// can tell how long the player waited.
+// Only touched by the game thread
+public class TurnBuffer {
+
+    private final Heading[] mHeadings;
+    private final long[] mTimes;
+    private int mFirst;
+    private int mCount;
+
+    // When the turn poll last returned was made
+    private long mTakenTime;
+
+    // Turns thrown away, for seeing how often it happens
+    private int mDropped;
+
+    public TurnBuffer(int capacity) {
+        mHeadings = new Heading[capacity];
+        mTimes = new long[capacity];
+    }
+
+    // Face a direction, made at time. current is the way the snake is
+    // going now. Returns false if the turn was dropped
+    public boolean offer(Heading heading, Heading current, long time) {
+        Heading last = latest(current);
+        if (heading == last || heading == last.opposite() || mCount == mHeadings.length) {
+            mDropped++;
+            return false;
+        }
+        int slot = (mFirst + mCount) % mHeadings.length;
+        mHeadings[slot] = heading;
+        mTimes[slot] = time;
+        mCount++;
+        return true;
+    }
+
+    // Rotate a quarter turn from wherever the turns
+    // already waiting will leave the snake facing
+    public boolean offerTurn(boolean rotateRight, Heading current, long time) {
+        Heading last = latest(current);
+        return offer(rotateRight ? last.rotateRight() : last.rotateLeft(), current, time);
+    }
+
+    // The turn for this tick, or null if there isn't one. Something
+    // else may have turned the snake since a turn was buffered, so
+    // any that no longer make sense are skipped
+    public Heading poll(Heading current) {
+        while (mCount > 0) {
+            Heading heading = mHeadings[mFirst];
+            long time = mTimes[mFirst];
+            mHeadings[mFirst] = null;
+            mFirst = (mFirst + 1) % mHeadings.length;
+            mCount--;
+            if (heading != current && heading != current.opposite()) {
+                mTakenTime = time;
+                return heading;
+            }
+            mDropped++;
+        }
+        return null;
+    }
+
+    // Forget every turn waiting, for a new game or a pause
+    public void clear() {
+        while (mCount > 0) {
+            mHeadings[mFirst] = null;
+            mFirst = (mFirst + 1) % mHeadings.length;
+            mCount--;
+        }
+    }
+
+    // When the turn poll last returned was made
+    public long getTakenTime() {
+        return mTakenTime;
+    }
+
+    public int size() {
+        return mCount;
+    }
+
+    public int getDroppedCount() {
+        return mDropped;
+    }
+
+    // Which way the snake will face once every waiting turn is taken
+    private Heading latest(Heading current) {
+        if (mCount == 0) {
+            return current;
+        }
+        return mHeadings[(mFirst + mCount - 1) % mHeadings.length];
+    }
+}
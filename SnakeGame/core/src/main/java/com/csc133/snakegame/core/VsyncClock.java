@@ -0,0 +1,103 @@
+package com.csc133.snakegame.core;
+
+// A clock for a game loop driven by the display's vsync, like from
+// Android's Choreographer. During a frame it reports the vsync time the
+// frame is for instead of whenever the loop got round to asking, so
+// ticks and the snake's slide between cells step evenly with the
+// display. Outside a frame it is the clock it wraps.
+// It also works out the display's refresh period from the vsync times,
+// so it follows a panel switching between 60, 90 and 120Hz, and picks
+// which vsyncs to draw on when frames are wanted less often than that
+public class VsyncClock implements FrameScheduler.Clock {
+
+    // The shortest gap between vsyncs in this many is taken as the
+    // period. Frames the loop missed only ever make gaps longer
+    private static final int PERIOD_WINDOW = 32;
+
+    private final FrameScheduler.Clock mClock;
+
+    // The vsync time of the frame in progress, 0 outside a frame
+    private long mFrameTime;
+    // The latest time handed out, time never goes backwards
+    private long mLatest;
+
+    private long mPeriodNanos;
+    private long mLastVsync;
+    private long mWindowMin = Long.MAX_VALUE;
+    private int mWindowCount;
+
+    // The vsync the last frame was drawn on, 0 if none yet
+    private long mLastDrawn;
+
+    public VsyncClock(FrameScheduler.Clock clock, long periodNanos) {
+        mClock = clock;
+        mPeriodNanos = periodNanos;
+    }
+
+    @Override
+    public long nanoTime() {
+        long now = mFrameTime != 0 ? mFrameTime : mClock.nanoTime();
+        if (now > mLatest) {
+            mLatest = now;
+        }
+        return mLatest;
+    }
+
+    @Override
+    public void sleepNanos(long nanos) throws InterruptedException {
+        mClock.sleepNanos(nanos);
+    }
+
+    // A frame for the vsync at frameTimeNanos has started
+    public void beginFrame(long frameTimeNanos) {
+        if (mLastVsync != 0) {
+            long interval = frameTimeNanos - mLastVsync;
+            if (interval > 0 && interval < mWindowMin) {
+                mWindowMin = interval;
+            }
+            if (++mWindowCount == PERIOD_WINDOW) {
+                mPeriodNanos = mWindowMin;
+                mWindowMin = Long.MAX_VALUE;
+                mWindowCount = 0;
+            }
+        }
+        mLastVsync = frameTimeNanos;
+        mFrameTime = frameTimeNanos;
+    }
+
+    // Back to the wrapped clock until the next frame
+    public void endFrame() {
+        mFrameTime = 0;
+    }
+
+    // Should the frame in progress be drawn, if frames are wanted
+    // frameNanos apart. Frames are drawn every so many vsyncs, so a
+    // 60fps game on a 120Hz panel draws on every other one
+    public boolean frameDue(long frameNanos) {
+        if (mLastDrawn == 0) {
+            return true;
+        }
+        long vsyncs = Math.max(1, (frameNanos + mPeriodNanos / 2) / mPeriodNanos);
+        // Half a period early still counts, vsync times wobble a little
+        return mFrameTime - mLastDrawn >= vsyncs * mPeriodNanos - mPeriodNanos / 2;
+    }
+
+    // The frame in progress was drawn
+    public void frameDrawn() {
+        mLastDrawn = mFrameTime;
+    }
+
+    // Vsyncs stopped coming, like when the game paused. The gap
+    // isn't a period and the next frame is drawn whatever it is
+    public void reset() {
+        mLastVsync = 0;
+        mLastDrawn = 0;
+        mWindowMin = Long.MAX_VALUE;
+        mWindowCount = 0;
+    }
+
+    // The time between vsyncs
+    public long getPeriodNanos() {
+        return mPeriodNanos;
+    }
+}
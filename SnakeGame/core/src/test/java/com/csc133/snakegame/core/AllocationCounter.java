@@ -0,0 +1,37 @@
+package com.csc133.snakegame.core;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reads how many bytes the current thread has allocated so far,
+ * using the HotSpot extension of the thread MX bean.
+ */
+final class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationCounter() {
+    }
+
+    static boolean isSupported() {
+        return THREADS.isThreadAllocatedMemorySupported()
+                && THREADS.isThreadAllocatedMemoryEnabled();
+    }
+
+    static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // Bytes allocated by running the task, after the counter's own
+    // overhead of being called is taken off
+    static long measure(Runnable task) {
+        long overhead = allocatedBytes();
+        overhead = allocatedBytes() - overhead;
+
+        long before = allocatedBytes();
+        task.run();
+        long after = allocatedBytes();
+        return Math.max(0, after - before - overhead);
+    }
+}
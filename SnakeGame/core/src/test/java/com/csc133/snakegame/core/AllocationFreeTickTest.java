@@ -0,0 +1,85 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs 10,000 game ticks the way the game loop does, through the
+ * scheduler, the command queue and the engine, and fails if any of
+ * it allocates.
+ */
+public class AllocationFreeTickTest {
+
+    private static final int WIDTH = 40;
+    private static final int HEIGHT = 20;
+    private static final int TICKS = 10_000;
+
+    // values() copies the array every call so keep one
+    private static final Heading[] HEADINGS = Heading.values();
+
+    private final FrameSchedulerTest.FakeClock mClock = new FrameSchedulerTest.FakeClock();
+    private final FrameScheduler mScheduler = new FrameScheduler(mClock, 10, 60, 3);
+    private final CommandQueue mCommands = new CommandQueue(64);
+    private final GameEngine mEngine = new GameEngine(WIDTH, HEIGHT, 42);
+
+    @Test
+    public void steadyStateTicksDoNotAllocate() {
+        assumeTrue(AllocationCounter.isSupported());
+
+        // Warm up so class loading and the JIT are out of the way
+        for (int i = 0; i < 5; i++) {
+            runTicks();
+        }
+
+        long bytes = AllocationCounter.measure(this::runTicks);
+        assertEquals("bytes allocated per " + TICKS + " ticks", 0, bytes);
+    }
+
+    private void runTicks() {
+        for (int i = 0; i < TICKS; i++) {
+            mClock.now += mScheduler.getTickNanos();
+
+            // Steer through the queue like a touch would
+            mCommands.offer(headingTowardsNextOnCycle().ordinal());
+            int command;
+            while ((command = mCommands.poll()) != CommandQueue.EMPTY) {
+                mEngine.getSnake().setHeading(HEADINGS[command]);
+            }
+
+            int ticks = mScheduler.advance();
+            for (int t = 0; t < ticks; t++) {
+                mEngine.tick();
+            }
+            assertFalse(mEngine.getSnake().detectDeath());
+            if (mEngine.isWon()) {
+                // Filled the board, go again
+                mEngine.newGame();
+            }
+            mScheduler.interpolation();
+            mScheduler.frameDrawn();
+        }
+    }
+
+    // Follow a loop that covers the whole board so the snake
+    // keeps growing without ever hitting itself.
+    // Rows are swept back and forth over columns 1 and up,
+    // then column 0 leads back to the top
+    private Heading headingTowardsNextOnCycle() {
+        SnakeBody body = mEngine.getSnake().getBody();
+        int head = body.headCell();
+        int x = body.cellX(head);
+        int y = body.cellY(head);
+        if (x == 0) {
+            return y == 0 ? Heading.RIGHT : Heading.UP;
+        }
+        if (y % 2 == 0) {
+            return x < WIDTH - 1 ? Heading.RIGHT : Heading.DOWN;
+        }
+        if (x > 1) {
+            return Heading.LEFT;
+        }
+        return y < HEIGHT - 1 ? Heading.DOWN : Heading.LEFT;
+    }
+}
@@ -0,0 +1,111 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Lets the autopilot play whole games.
+ */
+public class AutopilotTest {
+
+    private static final int MAX_TICKS = 100_000;
+
+    // Play one game with the autopilot steering
+    private static void play(GameEngine engine, Autopilot autopilot) {
+        while (!engine.isOver() && engine.getTick() < MAX_TICKS) {
+            engine.getSnake().setHeading(autopilot.steer(engine));
+            engine.tick();
+        }
+    }
+
+    @Test
+    public void eatsApplesOnItsOwn() {
+        GameEngine engine = new GameEngine(40, 18, 3);
+        Autopilot autopilot = new Autopilot(40, 18);
+        int total = 0;
+        for (int game = 0; game < 20; game++) {
+            engine.newGame();
+            play(engine, autopilot);
+            total += engine.getScore();
+        }
+        // Random play averages a couple of apples
+        assertTrue("average " + total / 20, total / 20 >= 30);
+    }
+
+    @Test
+    public void takesTheShortestWayToTheApple() {
+        GameEngine engine = new GameEngine(20, 20, 8);
+        Autopilot autopilot = new Autopilot(20, 20);
+        int head = engine.getSnake().getHeadCell();
+        int apple = engine.getApple().getCell();
+        int distance = Math.abs(head % 20 - apple % 20) + Math.abs(head / 20 - apple / 20);
+
+        while (engine.getScore() == 0) {
+            engine.getSnake().setHeading(autopilot.steer(engine));
+            engine.tick();
+        }
+        assertEquals(distance, engine.getTick());
+    }
+
+    @Test
+    public void onlyPlansWhenTheAppleMoves() {
+        GameEngine engine = new GameEngine(40, 18, 5);
+        Autopilot autopilot = new Autopilot(40, 18);
+        play(engine, autopilot);
+
+        // One path per apple, plus searches made when
+        // the way was blocked and it was just surviving
+        assertTrue(engine.getScore() > 10);
+        assertTrue(autopilot.getPlanCount() + " plans in " + engine.getTick() + " ticks",
+                autopilot.getPlanCount() < engine.getTick() / 4);
+    }
+
+    @Test
+    public void neverTurnsIntoItsBody() {
+        // Up, left, then back down alongside itself
+        GameEngine engine = new GameEngine(10, 10, 1);
+        SnakeModel snake = engine.getSnake();
+        Autopilot autopilot = new Autopilot(10, 10);
+        snake.grow(20);
+        snake.setHeading(Heading.UP);
+        for (int i = 0; i < 5; i++) {
+            engine.tick();
+        }
+        snake.setHeading(Heading.LEFT);
+        for (int i = 0; i < 5; i++) {
+            engine.tick();
+        }
+        snake.setHeading(Heading.DOWN);
+        engine.tick();
+
+        // Back up is the body it just made
+        Heading heading = autopilot.steer(engine);
+        assertNotSame(Heading.UP, heading);
+        engine.getSnake().setHeading(heading);
+        engine.tick();
+        assertFalse(engine.isOver());
+    }
+
+    @Test
+    public void steersWithoutAllocating() {
+        assumeTrue(AllocationCounter.isSupported());
+        final GameEngine engine = new GameEngine(40, 18, 2);
+        final Autopilot autopilot = new Autopilot(40, 18);
+        Runnable games = new Runnable() {
+            @Override
+            public void run() {
+                for (int game = 0; game < 20; game++) {
+                    engine.newGame(game);
+                    play(engine, autopilot);
+                }
+            }
+        };
+        // Warm up so the JIT has compiled it
+        for (int i = 0; i < 3; i++) {
+            games.run();
+        }
+        assertEquals(0, AllocationCounter.measure(games));
+    }
+}
@@ -0,0 +1,168 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs many boards at once and checks each plays the same game a
+ * GameEngine would.
+ */
+public class BatchEngineTest {
+
+    private static final int MAX_TICKS = 5000;
+
+    // Turns now and then, decided by the seed and the tick only
+    // so a GameEngine can be steered the same way
+    private static Heading turn(Heading heading, long seed, int tick) {
+        long hash = (seed ^ tick) * 0x9E3779B97F4A7C15L;
+        switch ((int) (hash >>> 61)) {
+            case 0:
+                return heading.rotateLeft();
+            case 1:
+                return heading.rotateRight();
+            default:
+                return heading;
+        }
+    }
+
+    private static final BatchEngine.Policy RANDOM_TURNS = new BatchEngine.Policy() {
+        @Override
+        public Heading steer(BatchEngine batch, int board) {
+            return turn(batch.getHeading(board), batch.getSeed(board), batch.getTick(board));
+        }
+    };
+
+    // Back and forth over every row of an even height board,
+    // up column 0 to the top, and round again. Never hits anything
+    private static final BatchEngine.Policy CYCLE = new BatchEngine.Policy() {
+        @Override
+        public Heading steer(BatchEngine batch, int board) {
+            int head = batch.headCell(board);
+            int x = head % batch.getWidth();
+            int y = head / batch.getWidth();
+            if (x == 0) {
+                return y == 0 ? Heading.RIGHT : Heading.UP;
+            }
+            if (y % 2 == 0) {
+                return x < batch.getWidth() - 1 ? Heading.RIGHT : Heading.DOWN;
+            }
+            if (x > 1) {
+                return Heading.LEFT;
+            }
+            return y < batch.getHeight() - 1 ? Heading.DOWN : Heading.LEFT;
+        }
+    };
+
+    @Test
+    public void everyBoardPlaysTheSameGameAsGameEngine() {
+        BatchEngine batch = new BatchEngine(300, 20, 12);
+        batch.newGames(5);
+        batch.run(MAX_TICKS, RANDOM_TURNS);
+
+        GameEngine engine = new GameEngine(20, 12, 5);
+        Random seeds = new Random(5);
+        for (int board = 0; board < batch.getBoardCount(); board++) {
+            long seed = seeds.nextLong();
+            engine.newGame(seed);
+            SnakeModel snake = engine.getSnake();
+            while (!engine.isOver() && engine.getTick() < MAX_TICKS) {
+                snake.setHeading(turn(snake.getHeading(), seed, engine.getTick()));
+                engine.tick();
+            }
+
+            assertEquals(seed, batch.getSeed(board));
+            assertEquals(engine.getTick(), batch.getTick(board));
+            assertEquals(engine.getScore(), batch.getScore(board));
+            assertEquals(engine.isOver(), batch.isOver(board));
+            assertEquals(snake.getHeadCell(), batch.headCell(board));
+            assertEquals(snake.getBody().length(), batch.getLength(board));
+            assertEquals(engine.getApple().getCell(), batch.getAppleCell(board));
+        }
+    }
+
+    @Test
+    public void theSameWhateverTheThreads() {
+        BatchEngine one = new BatchEngine(1000, 16, 16);
+        one.newGames(9);
+        ForkJoinPool single = new ForkJoinPool(1);
+        long oneTicks = one.run(MAX_TICKS, RANDOM_TURNS, single);
+        single.shutdown();
+
+        BatchEngine many = new BatchEngine(1000, 16, 16);
+        many.newGames(9);
+        ForkJoinPool four = new ForkJoinPool(4);
+        long manyTicks = many.run(MAX_TICKS, RANDOM_TURNS, four);
+        four.shutdown();
+
+        assertEquals(oneTicks, manyTicks);
+        for (int board = 0; board < 1000; board++) {
+            assertEquals(one.getTick(board), many.getTick(board));
+            assertEquals(one.getScore(board), many.getScore(board));
+            assertEquals(one.headCell(board), many.headCell(board));
+        }
+    }
+
+    @Test
+    public void runsInSteps() {
+        BatchEngine whole = new BatchEngine(200, 16, 10);
+        whole.newGames(3);
+        long wholeTicks = whole.run(400, RANDOM_TURNS);
+
+        BatchEngine steps = new BatchEngine(200, 16, 10);
+        steps.newGames(3);
+        long stepTicks = 0;
+        for (int i = 0; i < 4; i++) {
+            stepTicks += steps.run(100, RANDOM_TURNS);
+        }
+
+        assertEquals(wholeTicks, stepTicks);
+        for (int board = 0; board < 200; board++) {
+            assertEquals(whole.getScore(board), steps.getScore(board));
+            assertEquals(whole.headCell(board), steps.headCell(board));
+        }
+    }
+
+    @Test
+    public void fillsTheBoardFollowingACycle() {
+        BatchEngine batch = new BatchEngine(50, 8, 6);
+        batch.newGames(11);
+        batch.run(100_000, CYCLE);
+
+        assertEquals(0, batch.getRunningCount());
+        for (int board = 0; board < 50; board++) {
+            assertTrue(batch.isWon(board));
+            assertEquals(8 * 6, batch.getScore(board));
+            assertEquals(AppleModel.HIDDEN, batch.getAppleCell(board));
+        }
+
+        // Winning takes as long as it does in GameEngine
+        GameEngine engine = new GameEngine(8, 6, 1);
+        engine.newGame(batch.getSeed(0));
+        BatchEngine one = new BatchEngine(1, 8, 6);
+        one.newGame(0, batch.getSeed(0));
+        while (!engine.isOver()) {
+            Heading heading = CYCLE.steer(one, 0);
+            one.setHeading(0, heading);
+            engine.getSnake().setHeading(heading);
+            assertEquals(one.tick(0), engine.tick());
+        }
+        assertTrue(engine.isWon());
+        assertEquals(batch.getTick(0), engine.getTick());
+    }
+
+    // 100,000 boards of 200x200 is four billion cells, which
+    // an int index would wrap round on
+    @Test(expected = ArithmeticException.class)
+    public void refusesMoreCellsThanAnArrayHolds() {
+        new BatchEngine(100_000, 200, 200);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void refusesNoBoards() {
+        new BatchEngine(0, 40, 18);
+    }
+}
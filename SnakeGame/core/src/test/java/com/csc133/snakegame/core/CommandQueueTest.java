@@ -0,0 +1,120 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the command queue hands every command to the game thread
+ * exactly once and in order, even with several threads sending.
+ */
+public class CommandQueueTest {
+
+    @Test
+    public void pollsInOrderThenEmpty() {
+        CommandQueue queue = new CommandQueue(4);
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertTrue(queue.offer(3));
+
+        assertEquals(1, queue.poll());
+        assertEquals(2, queue.poll());
+        assertEquals(3, queue.poll());
+        assertEquals(CommandQueue.EMPTY, queue.poll());
+    }
+
+    @Test
+    public void refusesCommandsWhenFull() {
+        CommandQueue queue = new CommandQueue(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(99));
+
+        // Room again once one is taken
+        assertEquals(0, queue.poll());
+        assertTrue(queue.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, queue.poll());
+        }
+    }
+
+    @Test
+    public void argumentsComeOutWithTheirCommands() {
+        CommandQueue queue = new CommandQueue(4);
+        queue.offer(1, 100L);
+        queue.offer(2);
+
+        assertEquals(1, queue.poll());
+        assertEquals(100L, queue.getArgument());
+        assertEquals(2, queue.poll());
+        assertEquals(0L, queue.getArgument());
+    }
+
+    @Test
+    public void roundsCapacityUpToAPowerOfTwo() {
+        assertEquals(64, new CommandQueue(64).capacity());
+        assertEquals(64, new CommandQueue(33).capacity());
+        assertEquals(2, new CommandQueue(1).capacity());
+    }
+
+    // Several threads hammer the queue while one thread plays the
+    // part of the game loop. Each sender numbers its commands, so the
+    // game thread can check nothing was lost, repeated or reordered
+    @Test
+    public void manySendersOneGameThread() throws Exception {
+        final int senders = 4;
+        final int perSender = 200_000;
+        final CommandQueue queue = new CommandQueue(64);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] threads = new Thread[senders];
+        for (int s = 0; s < senders; s++) {
+            final int sender = s;
+            threads[s] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perSender; i++) {
+                    int command = (sender << 24) | i;
+                    while (!queue.offer(command)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[s].start();
+        }
+
+        // Game state only this thread writes
+        int[] nextExpected = new int[senders];
+        long received = 0;
+        start.countDown();
+
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (received < (long) senders * perSender) {
+            int command = queue.poll();
+            if (command == CommandQueue.EMPTY) {
+                assertTrue("timed out waiting for commands", System.nanoTime() < deadline);
+                Thread.yield();
+                continue;
+            }
+            int sender = command >>> 24;
+            int sequence = command & 0xFFFFFF;
+            assertEquals(nextExpected[sender], sequence);
+            nextExpected[sender]++;
+            received++;
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int s = 0; s < senders; s++) {
+            assertEquals(perSender, nextExpected[s]);
+        }
+        assertEquals(CommandQueue.EMPTY, queue.poll());
+    }
+}
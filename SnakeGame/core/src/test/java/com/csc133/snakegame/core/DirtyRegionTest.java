@@ -0,0 +1,109 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the dirty region covers exactly the cells a tick touched.
+ */
+public class DirtyRegionTest {
+
+    @Test
+    public void startsFullAndClears() {
+        DirtyRegion dirty = new DirtyRegion(10, 8);
+        assertTrue(dirty.isFull());
+
+        dirty.clear();
+        assertTrue(dirty.isEmpty());
+        assertFalse(dirty.isFull());
+    }
+
+    @Test
+    public void growsToCoverEveryCellAdded() {
+        DirtyRegion dirty = new DirtyRegion(10, 8);
+        dirty.clear();
+
+        dirty.add(3 * 10 + 4);
+        assertEquals(4, dirty.getLeft());
+        assertEquals(3, dirty.getTop());
+        assertEquals(5, dirty.getRight());
+        assertEquals(4, dirty.getBottom());
+
+        dirty.add(6 * 10 + 1);
+        assertEquals(1, dirty.getLeft());
+        assertEquals(3, dirty.getTop());
+        assertEquals(5, dirty.getRight());
+        assertEquals(7, dirty.getBottom());
+    }
+
+    @Test
+    public void ignoresCellsOffTheBoard() {
+        DirtyRegion dirty = new DirtyRegion(10, 8);
+        dirty.clear();
+        dirty.add(-1);
+        dirty.add(80);
+        assertTrue(dirty.isEmpty());
+    }
+
+    @Test
+    public void tickOnlyDirtiesTheCellsItTouched() {
+        GameEngine engine = new GameEngine(20, 20, 5);
+        engine.getApple().reset();
+        engine.getDirtyRegion().clear();
+
+        SnakeModel snake = engine.getSnake();
+        int oldHead = snake.getHeadCell();
+        engine.tick();
+        int newHead = snake.getHeadCell();
+
+        DirtyRegion dirty = engine.getDirtyRegion();
+        assertFalse(dirty.isEmpty());
+        assertFalse(dirty.isFull());
+        SnakeBody body = snake.getBody();
+        for (int cell : new int[]{oldHead, newHead}) {
+            assertTrue(body.cellX(cell) >= dirty.getLeft());
+            assertTrue(body.cellX(cell) < dirty.getRight());
+            assertTrue(body.cellY(cell) >= dirty.getTop());
+            assertTrue(body.cellY(cell) < dirty.getBottom());
+        }
+        // A one cell snake moving sideways only touches one row
+        assertEquals(1, dirty.getBottom() - dirty.getTop());
+    }
+
+    @Test
+    public void lastTicksCellsStayDirtyForOneMoreTick() {
+        GameEngine engine = new GameEngine(20, 20, 5);
+        engine.getApple().reset();
+        SnakeModel snake = engine.getSnake();
+        snake.grow(4);
+        for (int i = 0; i < 4; i++) {
+            engine.tick();
+        }
+        // Turn so the cells it slid out of are on another row
+        snake.setHeading(Heading.UP);
+        engine.tick();
+        int slidFromHead = snake.getPrevHead();
+        int slidFromTail = snake.getPrevTail();
+
+        engine.getDirtyRegion().clear();
+        engine.tick();
+        assertContains(engine.getDirtyRegion(), snake.getBody(), slidFromHead);
+        assertContains(engine.getDirtyRegion(), snake.getBody(), slidFromTail);
+    }
+
+    private static void assertContains(DirtyRegion dirty, SnakeBody body, int cell) {
+        assertTrue(body.cellX(cell) >= dirty.getLeft());
+        assertTrue(body.cellX(cell) < dirty.getRight());
+        assertTrue(body.cellY(cell) >= dirty.getTop());
+        assertTrue(body.cellY(cell) < dirty.getBottom());
+    }
+
+    @Test
+    public void newGameDirtiesEverything() {
+        GameEngine engine = new GameEngine(20, 20, 5);
+        engine.getDirtyRegion().clear();
+        engine.newGame();
+        assertTrue(engine.getDirtyRegion().isFull());
+    }
+}
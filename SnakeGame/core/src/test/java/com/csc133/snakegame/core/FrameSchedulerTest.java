@@ -0,0 +1,172 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the game loop scheduler with a fake clock.
+ */
+public class FrameSchedulerTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    // A clock that only moves when it is told to or when someone sleeps
+    static class FakeClock implements FrameScheduler.Clock {
+        long now;
+        int sleeps;
+        long sleptNanos;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public void sleepNanos(long nanos) {
+            sleeps++;
+            sleptNanos += nanos;
+            now += nanos;
+        }
+    }
+
+    @Test
+    public void runsTenTicksPerSimulatedSecond() {
+        FakeClock clock = new FakeClock();
+        FrameScheduler scheduler = new FrameScheduler(clock, 10, 60, 3);
+
+        int ticks = 0;
+        while (clock.now < 1000 * MILLIS) {
+            ticks += scheduler.advance();
+            scheduler.waitForNextDeadline(false);
+        }
+        ticks += scheduler.advance();
+
+        assertEquals(10, ticks);
+    }
+
+    @Test
+    public void sleepsInsteadOfSpinning() {
+        FakeClock clock = new FakeClock();
+        FrameScheduler scheduler = new FrameScheduler(clock, 10, 60, 3);
+
+        int loops = 0;
+        while (clock.now < 1000 * MILLIS) {
+            scheduler.advance();
+            scheduler.waitForNextDeadline(false);
+            loops++;
+        }
+
+        // One pass of the loop per tick, and all of the time spent asleep
+        assertEquals(10, loops);
+        assertEquals(10, clock.sleeps);
+        assertEquals(1000 * MILLIS, clock.sleptNanos);
+    }
+
+    @Test
+    public void accumulatesPartialTicks() {
+        FakeClock clock = new FakeClock();
+        FrameScheduler scheduler = new FrameScheduler(clock, 10, 60, 3);
+
+        clock.now += 60 * MILLIS;
+        assertEquals(0, scheduler.advance());
+        assertEquals(40 * MILLIS, scheduler.nanosUntilNextTick());
+
+        clock.now += 60 * MILLIS;
+        assertEquals(1, scheduler.advance());
+        assertEquals(80 * MILLIS, scheduler.nanosUntilNextTick());
+    }
+
+    @Test
+    public void boundsCatchUpAfterALongStall() {
+        FakeClock clock = new FakeClock();
+        FrameScheduler scheduler = new FrameScheduler(clock, 10, 60, 3);
+
+        clock.now += 2000 * MILLIS;
+        assertEquals(3, scheduler.advance());
+        assertEquals(17, scheduler.getDroppedTicks());
+        // Two of the three that did run were catching up
+        assertEquals(2, scheduler.getLateTicks());
+
+        // Back on schedule afterwards
+        clock.now += 100 * MILLIS;
+        assertEquals(1, scheduler.advance());
+        assertEquals(2, scheduler.getLateTicks());
+    }
+
+    @Test
+    public void drawsAtTheFrameRateWhileAnimating() {
+        FakeClock clock = new FakeClock();
+        FrameScheduler scheduler = new FrameScheduler(clock, 10, 50, 3);
+
+        int ticks = 0;
+        int frames = 0;
+        while (clock.now < 1000 * MILLIS) {
+            ticks += scheduler.advance();
+            if (scheduler.frameDue()) {
+                frames++;
+                scheduler.frameDrawn();
+            }
+            scheduler.waitForNextDeadline(true);
+        }
+        ticks += scheduler.advance();
+
+        assertEquals(10, ticks);
+        assertEquals(50, frames);
+    }
+
+    @Test
+    public void interpolatesBetweenTicks() {
+        FakeClock clock = new FakeClock();
+        FrameScheduler scheduler = new FrameScheduler(clock, 10, 60, 3);
+
+        assertEquals(0f, scheduler.interpolation(), 0.0001f);
+
+        clock.now += 25 * MILLIS;
+        assertEquals(0.25f, scheduler.interpolation(), 0.0001f);
+
+        clock.now += 100 * MILLIS;
+        assertEquals(1, scheduler.advance());
+        assertEquals(0.25f, scheduler.interpolation(), 0.0001f);
+    }
+
+    @Test
+    public void changingRatesTakesEffect() {
+        FakeClock clock = new FakeClock();
+        FrameScheduler scheduler = new FrameScheduler(clock, 10, 60, 3);
+
+        scheduler.setTickRate(20);
+        scheduler.setFrameRate(120);
+
+        assertEquals(50 * MILLIS, scheduler.getTickNanos());
+        assertEquals(1_000_000_000L / 120, scheduler.getFrameNanos());
+    }
+
+    @Test
+    public void resetDropsBankedTime() {
+        FakeClock clock = new FakeClock();
+        FrameScheduler scheduler = new FrameScheduler(clock, 10, 60, 3);
+
+        clock.now += 5000 * MILLIS;
+        scheduler.reset();
+
+        assertEquals(0, scheduler.advance());
+        assertEquals(0, scheduler.getDroppedTicks());
+    }
+
+    @Test
+    public void reportsTheWaitWithoutSleeping() {
+        FakeClock clock = new FakeClock();
+        FrameScheduler scheduler = new FrameScheduler(clock, 10, 50, 3);
+        scheduler.frameDrawn();
+
+        clock.now += 5 * MILLIS;
+        assertEquals(95 * MILLIS, scheduler.nanosUntilNextDeadline(false));
+        assertEquals(15 * MILLIS, scheduler.nanosUntilNextDeadline(true));
+        assertEquals(0, clock.sleeps);
+
+        // Overdue is no wait, not a negative one
+        clock.now += 500 * MILLIS;
+        assertEquals(0, scheduler.nanosUntilNextDeadline(false));
+    }
+}
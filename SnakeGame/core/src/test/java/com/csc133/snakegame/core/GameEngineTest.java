@@ -0,0 +1,129 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Plays the game without a screen.
+ */
+public class GameEngineTest {
+
+    @Test
+    public void startsInTheMiddleHeadingRight() {
+        GameEngine engine = new GameEngine(40, 20, 1);
+        SnakeBody body = engine.getSnake().getBody();
+
+        assertEquals(1, body.length());
+        assertEquals(body.cell(20, 10), body.headCell());
+        assertEquals(Heading.RIGHT, engine.getSnake().getHeading());
+        assertFalse(engine.getApple().isHidden());
+        assertNotEquals(body.headCell(), engine.getApple().getCell());
+    }
+
+    @Test
+    public void eatingScoresAndGrowsOnTheNextMove() {
+        GameEngine engine = new GameEngine(40, 20, 1);
+        SnakeModel snake = engine.getSnake();
+
+        // Walk to the apple: across, then up or down
+        int apple = engine.getApple().getCell();
+        int events = walkTo(engine, engine.getApple().getX(), engine.getApple().getY());
+
+        assertTrue((events & GameEngine.EVENT_ATE_APPLE) != 0);
+        assertEquals(1, engine.getScore());
+        assertEquals(1, snake.getBody().length());
+        assertNotEquals(apple, engine.getApple().getCell());
+
+        engine.tick();
+        assertEquals(2, snake.getBody().length());
+    }
+
+    @Test
+    public void hittingTheWallEndsTheGame() {
+        GameEngine engine = new GameEngine(10, 10, 1);
+        engine.getApple().reset();
+
+        int events = 0;
+        for (int i = 0; i < 10 && events == 0; i++) {
+            events = engine.tick();
+        }
+
+        assertEquals(GameEngine.EVENT_DIED, events);
+        assertTrue(engine.isOver());
+        assertFalse(engine.isWon());
+        // The head stays on the last cell on the board
+        assertEquals(9, engine.getSnake().getBody().cellX(engine.getSnake().getHeadCell()));
+        // Nothing happens once the game is over
+        assertEquals(0, engine.tick());
+    }
+
+    @Test
+    public void fillingTheBoardWins() {
+        // A 2x2 board, the snake starts at (1, 1)
+        GameEngine engine = new GameEngine(2, 2, 7);
+        SnakeModel snake = engine.getSnake();
+        Heading[] loop = {Heading.UP, Heading.LEFT, Heading.DOWN, Heading.RIGHT};
+
+        int events = 0;
+        for (int i = 0; i < 40 && !engine.isOver(); i++) {
+            snake.setHeading(loop[i % 4]);
+            events = engine.tick();
+        }
+
+        // The last apple is eaten as the snake fills the last cell
+        assertTrue(engine.isWon());
+        assertTrue((events & GameEngine.EVENT_WON) != 0);
+        assertEquals(4, engine.getScore());
+        assertEquals(4, snake.getBody().length());
+        assertTrue(engine.getApple().isHidden());
+    }
+
+    @Test
+    public void sameSeedSameGame() {
+        assertEquals(playRandomly(1234), playRandomly(1234));
+        assertNotEquals(playRandomly(1234), playRandomly(4321));
+    }
+
+    // Plays a few games with turns from their own seeded random
+    // numbers and returns a fingerprint of how they went
+    private static long playRandomly(long seed) {
+        GameEngine engine = new GameEngine(20, 15, seed);
+        Random turns = new Random(seed);
+        long fingerprint = 17;
+        for (int i = 0; i < 20_000; i++) {
+            if (turns.nextInt(3) == 0) {
+                engine.getSnake().switchHeading(turns.nextBoolean());
+            }
+            int events = engine.tick();
+            fingerprint = fingerprint * 31 + events;
+            fingerprint = fingerprint * 31 + engine.getSnake().getHeadCell();
+            fingerprint = fingerprint * 31 + engine.getApple().getCell();
+            if (engine.isOver()) {
+                engine.newGame();
+            }
+        }
+        return fingerprint;
+    }
+
+    // Steer straight to a cell, first across then up or down.
+    // Returns the events from the last tick
+    private static int walkTo(GameEngine engine, int x, int y) {
+        SnakeModel snake = engine.getSnake();
+        SnakeBody body = snake.getBody();
+        int events = 0;
+        while (body.headCell() != body.cell(x, y)) {
+            int headX = body.cellX(body.headCell());
+            int headY = body.cellY(body.headCell());
+            if (headX != x) {
+                snake.setHeading(x > headX ? Heading.RIGHT : Heading.LEFT);
+            } else {
+                snake.setHeading(y > headY ? Heading.DOWN : Heading.UP);
+            }
+            events = engine.tick();
+        }
+        return events;
+    }
+}
@@ -0,0 +1,81 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Plays games to the end with the cycle solver.
+ */
+public class HamiltonianSolverTest {
+
+    // Play until the board is full or the snake dies.
+    // Returns the ticks it took
+    private static long play(GameEngine engine, HamiltonianSolver solver) {
+        long ticks = 0;
+        while (!engine.isOver()) {
+            engine.getSnake().setHeading(solver.steer(engine));
+            engine.tick();
+            ticks++;
+        }
+        return ticks;
+    }
+
+    @Test
+    public void theCycleVisitsEveryCellOnce() {
+        int[][] sizes = {{4, 4}, {6, 5}, {5, 6}, {2, 2}, {10, 10}, {3, 8}};
+        for (int[] size : sizes) {
+            int width = size[0];
+            int height = size[1];
+            // With shortcuts off it follows the cycle, so a snake
+            // that never eats visits every cell in turn
+            GameEngine engine = new GameEngine(width, height, 1);
+            engine.getApple().reset();
+            HamiltonianSolver solver = new HamiltonianSolver(width, height);
+            boolean[] visited = new boolean[width * height];
+            int start = engine.getSnake().getHeadCell();
+            for (int i = 0; i < width * height; i++) {
+                int head = engine.getSnake().getHeadCell();
+                assertFalse(width + "x" + height, visited[head]);
+                visited[head] = true;
+                engine.getSnake().setHeading(solver.steer(engine));
+                engine.tick();
+                assertFalse(width + "x" + height, engine.isOver());
+            }
+            assertEquals(start, engine.getSnake().getHeadCell());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oddByOddHasNoCycle() {
+        new HamiltonianSolver(5, 7);
+    }
+
+    // Completion times from 10x10 up to 200x200 are in SolverBenchmark
+    @Test
+    public void alwaysFillsTheBoard() {
+        int[][] sizes = {{10, 10}, {12, 7}, {7, 12}, {20, 20}};
+        for (int[] size : sizes) {
+            for (long seed = 0; seed < 5; seed++) {
+                GameEngine engine = new GameEngine(size[0], size[1], seed);
+                play(engine, new HamiltonianSolver(size[0], size[1]));
+                assertTrue(size[0] + "x" + size[1] + " seed " + seed, engine.isWon());
+            }
+        }
+    }
+
+    @Test
+    public void shortcutsFinishSooner() {
+        GameEngine engine = new GameEngine(20, 20, 1);
+        HamiltonianSolver solver = new HamiltonianSolver(20, 20);
+        engine.newGame(3);
+        long withShortcuts = play(engine, solver);
+
+        solver.setShortcutsEnabled(false);
+        engine.newGame(3);
+        long cycleOnly = play(engine, solver);
+
+        assertTrue(engine.isWon());
+        assertTrue(withShortcuts + " vs " + cycleOnly, withShortcuts < cycleOnly * 3 / 4);
+    }
+}
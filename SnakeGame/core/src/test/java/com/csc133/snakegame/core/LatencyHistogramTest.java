@@ -0,0 +1,84 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks the histogram's percentiles stay within a bucket of the truth.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValueInOrder() {
+        int last = -1;
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(bucket == last || bucket == last + 1);
+            assertTrue(value <= LatencyHistogram.highestInBucket(bucket));
+            last = bucket;
+        }
+    }
+
+    @Test
+    public void percentilesAreWithinABucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(4);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            // Mostly a few milliseconds with the odd long frame
+            values[i] = 2_000_000 + (long) (random.nextGaussian() * 300_000)
+                    + (random.nextInt(50) == 0 ? 20_000_000 : 0);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = histogram.valueAtPercentile(percentile);
+            assertTrue(percentile + ": " + reported + " vs " + exact,
+                    reported >= exact && reported <= exact + exact / 16);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    public void hugeAndNegativeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.valueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    public void resetEmptiesIt() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.valueAtPercentile(99));
+    }
+
+    @Test
+    public void recordingDoesNotAllocate() {
+        assumeTrue(AllocationCounter.isSupported());
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Runnable record = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i * 1000L);
+                }
+            }
+        };
+        // Warm up so the JIT has compiled it
+        record.run();
+        assertEquals(0, AllocationCounter.measure(record));
+    }
+}
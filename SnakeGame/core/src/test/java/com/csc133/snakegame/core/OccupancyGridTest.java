@@ -0,0 +1,82 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the occupancy bits and the free cell list stay in step.
+ */
+public class OccupancyGridTest {
+
+    @Test
+    public void startsWithEveryCellFree() {
+        OccupancyGrid grid = new OccupancyGrid(7, 5);
+        assertEquals(35, grid.getFreeCount());
+        for (int cell = 0; cell < 35; cell++) {
+            assertFalse(grid.isOccupied(cell));
+        }
+    }
+
+    @Test
+    public void neverPicksAnOccupiedCell() {
+        OccupancyGrid grid = new OccupancyGrid(10, 10);
+        Random random = new Random(1);
+
+        // Cover everything except the last column
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 9; x++) {
+                grid.set(y * 10 + x);
+            }
+        }
+        assertEquals(10, grid.getFreeCount());
+
+        for (int i = 0; i < 1000; i++) {
+            int cell = grid.randomFreeCell(random);
+            assertEquals(9, cell % 10);
+        }
+    }
+
+    @Test
+    public void picksEveryFreeCellEventually() {
+        OccupancyGrid grid = new OccupancyGrid(4, 4);
+        Random random = new Random(2);
+        grid.set(0);
+        grid.set(5);
+
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            seen.add(grid.randomFreeCell(random));
+        }
+        assertEquals(14, seen.size());
+        assertFalse(seen.contains(0));
+        assertFalse(seen.contains(5));
+    }
+
+    @Test
+    public void setAndClearAreIdempotent() {
+        OccupancyGrid grid = new OccupancyGrid(3, 3);
+        grid.set(4);
+        grid.set(4);
+        assertEquals(8, grid.getFreeCount());
+        grid.clear(4);
+        grid.clear(4);
+        assertEquals(9, grid.getFreeCount());
+    }
+
+    @Test
+    public void fullBoardHasNoFreeCell() {
+        OccupancyGrid grid = new OccupancyGrid(3, 3);
+        for (int cell = 0; cell < 9; cell++) {
+            grid.set(cell);
+        }
+        assertEquals(-1, grid.randomFreeCell(new Random(3)));
+
+        grid.clear(7);
+        assertEquals(7, grid.randomFreeCell(new Random(3)));
+    }
+}
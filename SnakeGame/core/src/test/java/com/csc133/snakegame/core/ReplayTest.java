@@ -0,0 +1,147 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Records games with random turns and checks they play back the same.
+ */
+public class ReplayTest {
+
+    @Test
+    public void playsBackToTheSameEnd() {
+        GameEngine engine = new GameEngine(20, 15, 3);
+        ReplayRecorder recorder = new ReplayRecorder();
+        engine.setRecorder(recorder);
+        Replay replay = playRandomly(engine, recorder, new Random(8));
+
+        assertTrue(replay.getTurnCount() > 0);
+        GameEngine played = new ReplayPlayer().play(replay);
+        assertEquals(engine.getTick(), played.getTick());
+        assertEquals(engine.getScore(), played.getScore());
+        assertEquals(engine.getSnake().getHeadCell(), played.getSnake().getHeadCell());
+        assertEquals(engine.getApple().getCell(), played.getApple().getCell());
+        assertEquals(engine.isWon(), played.isWon());
+    }
+
+    @Test
+    public void survivesBeingWrittenAndReadBack() throws IOException {
+        GameEngine engine = new GameEngine(40, 18, 11);
+        ReplayRecorder recorder = new ReplayRecorder();
+        engine.setRecorder(recorder);
+        Replay replay = playRandomly(engine, recorder, new Random(2));
+
+        byte[] bytes = replay.toByteArray();
+        Replay read = Replay.fromByteArray(bytes);
+        assertEquals(replay.getWidth(), read.getWidth());
+        assertEquals(replay.getHeight(), read.getHeight());
+        assertEquals(replay.getSeed(), read.getSeed());
+        assertEquals(replay.getTicks(), read.getTicks());
+        assertEquals(replay.getScore(), read.getScore());
+        assertEquals(replay.getTurnCount(), read.getTurnCount());
+        for (int i = 0; i < replay.getTurnCount(); i++) {
+            assertEquals(replay.getTurnTick(i), read.getTurnTick(i));
+            assertEquals(replay.getTurnHeading(i), read.getTurnHeading(i));
+        }
+
+        // A turn usually fits in a single byte
+        assertTrue(bytes.length < 32 + replay.getTurnCount() * 2);
+    }
+
+    @Test
+    public void eachGameIsRecordedOnItsOwn() {
+        GameEngine engine = new GameEngine(20, 15, 4);
+        ReplayRecorder recorder = new ReplayRecorder();
+        engine.setRecorder(recorder);
+        engine.getSnake().switchHeading(true);
+        engine.tick();
+        assertEquals(1, recorder.getTurnCount());
+
+        engine.newGame();
+        assertEquals(0, recorder.getTurnCount());
+        assertEquals(engine.getSeed(), recorder.finish(engine).getSeed());
+    }
+
+    @Test
+    public void rejectsCorruptHeaders() {
+        GameEngine engine = new GameEngine(20, 15, 4);
+        ReplayRecorder recorder = new ReplayRecorder();
+        engine.setRecorder(recorder);
+        engine.tick();
+        byte[] good = recorder.finish(engine).toByteArray();
+
+        // After the magic and version: width, height, the seed's 8
+        // bytes, ticks, score, then the turn count. All fit in a byte
+        int width = 5;
+        int height = 6;
+        int count = 17;
+        int[][] corruptions = {{width, 0}, {height, 0}, {count, 0x7F}, {count, 2}};
+        for (int[] corruption : corruptions) {
+            byte[] bad = good.clone();
+            bad[corruption[0]] = (byte) corruption[1];
+            try {
+                Replay.fromByteArray(bad);
+                fail("read a replay with byte " + corruption[0] + " set to " + corruption[1]);
+            } catch (IOException expected) {
+                // A bad file is an IOException, nothing worse
+            }
+        }
+
+        // A huge turn count, five bytes long, in place of the real one
+        byte[] huge = new byte[count + 5];
+        System.arraycopy(good, 0, huge, 0, count);
+        huge[count] = (byte) 0xFF;
+        huge[count + 1] = (byte) 0xFF;
+        huge[count + 2] = (byte) 0xFF;
+        huge[count + 3] = (byte) 0xFF;
+        huge[count + 4] = 0x07;
+        try {
+            Replay.fromByteArray(huge);
+            fail("read a replay with 2^31 - 1 turns");
+        } catch (IOException expected) {
+            // Caught before the arrays are made
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        Replay.fromByteArray(new byte[]{'P', 'N', 'G', 0, 1, 2, 3});
+    }
+
+    // How fast they play back is in ReplayBenchmark
+    @Test
+    public void replaysThousandsOfGamesExactly() {
+        GameEngine engine = new GameEngine(40, 20, 21);
+        ReplayRecorder recorder = new ReplayRecorder();
+        engine.setRecorder(recorder);
+        Random turns = new Random(21);
+        int games = 2000;
+        Replay[] replays = new Replay[games];
+        for (int i = 0; i < games; i++) {
+            engine.newGame();
+            replays[i] = playRandomly(engine, recorder, turns);
+        }
+
+        ReplayPlayer player = new ReplayPlayer();
+        for (Replay replay : replays) {
+            assertTrue(player.matches(replay));
+        }
+    }
+
+    // Turn now and then, avoiding walls and the body when it can,
+    // until the game ends or has gone on long enough
+    private static Replay playRandomly(GameEngine engine, ReplayRecorder recorder, Random turns) {
+        SnakeModel snake = engine.getSnake();
+        while (!engine.isOver() && engine.getTick() < 5000) {
+            if (turns.nextInt(4) == 0) {
+                snake.switchHeading(turns.nextBoolean());
+            }
+            engine.tick();
+        }
+        return recorder.finish(engine);
+    }
+}
@@ -0,0 +1,113 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the circular snake body and that moving it stays cheap
+ * however long the snake gets.
+ */
+public class SnakeBodyTest {
+
+    @Test
+    public void movingKeepsTheLengthAndFollowsTheHead() {
+        SnakeBody body = new SnakeBody(10, 10);
+        body.reset(5, 5);
+        body.advance(body.cell(6, 5), true);
+        body.advance(body.cell(7, 5), true);
+
+        body.advance(body.cell(7, 6), false);
+
+        assertEquals(3, body.length());
+        assertEquals(body.cell(7, 6), body.cellAt(0));
+        assertEquals(body.cell(7, 5), body.cellAt(1));
+        assertEquals(body.cell(6, 5), body.cellAt(2));
+        assertEquals(body.cell(6, 5), body.tailCell());
+    }
+
+    @Test
+    public void wrapsAroundTheRing() {
+        SnakeBody body = new SnakeBody(3, 1);
+        body.reset(0, 0);
+        body.advance(body.cell(1, 0), true);
+
+        // Go back and forth many more times than the ring is long
+        for (int i = 0; i < 100; i++) {
+            int x = (i % 2 == 0) ? 2 : 1;
+            body.advance(body.cell(x, 0), false);
+            assertEquals(2, body.length());
+            assertEquals(body.cell(x, 0), body.headCell());
+        }
+    }
+
+    @Test
+    public void neverGrowsPastTheBoard() {
+        SnakeBody body = new SnakeBody(2, 2);
+        body.reset(0, 0);
+        for (int i = 0; i < 10; i++) {
+            body.advance(i % 4, true);
+        }
+        assertEquals(4, body.length());
+    }
+
+    @Test
+    public void packsAndUnpacksCells() {
+        SnakeBody body = new SnakeBody(40, 20);
+        int cell = body.cell(39, 19);
+        assertEquals(39, body.cellX(cell));
+        assertEquals(19, body.cellY(cell));
+        assertTrue(body.inBounds(0, 0));
+        assertFalse(body.inBounds(40, 0));
+        assertFalse(body.inBounds(0, -1));
+    }
+
+    @Test
+    public void occupancyFollowsTheHeadAndTail() {
+        SnakeBody body = new SnakeBody(10, 10);
+        body.reset(5, 5);
+        body.advance(body.cell(6, 5), true);
+        body.advance(body.cell(7, 5), false);
+
+        assertFalse(body.isOccupied(body.cell(5, 5)));
+        assertTrue(body.isOccupied(body.cell(6, 5)));
+        assertTrue(body.isOccupied(body.cell(7, 5)));
+        assertTrue(body.getOccupancy().isOccupied(-1, 5));
+    }
+
+    @Test
+    public void detectsRunningIntoTheBody() {
+        // A snake of four curled into a square
+        SnakeBody body = new SnakeBody(10, 10);
+        body.reset(1, 1);
+        body.advance(body.cell(2, 1), true);
+        body.advance(body.cell(2, 2), true);
+        body.advance(body.cell(1, 2), true);
+
+        // The tail is moving out of the way so following it is fine
+        assertFalse(body.wouldHitItself(body.cell(1, 1), false));
+        // Unless the snake is growing and the tail stays put
+        assertTrue(body.wouldHitItself(body.cell(1, 1), true));
+        // The middle of the body is always blocked
+        assertTrue(body.wouldHitItself(body.cell(2, 2), false));
+        assertFalse(body.wouldHitItself(body.cell(0, 2), false));
+    }
+
+    @Test
+    public void followingTheTailKeepsItsCellOccupied() {
+        SnakeBody body = new SnakeBody(10, 10);
+        body.reset(1, 1);
+        body.advance(body.cell(2, 1), true);
+        body.advance(body.cell(2, 2), true);
+        body.advance(body.cell(1, 2), true);
+
+        body.advance(body.cell(1, 1), false);
+
+        // The head took the tail's cell so all four are still covered
+        assertTrue(body.isOccupied(body.cell(1, 1)));
+        assertTrue(body.isOccupied(body.cell(2, 1)));
+        assertTrue(body.isOccupied(body.cell(2, 2)));
+        assertTrue(body.isOccupied(body.cell(1, 2)));
+        assertEquals(body.cell(2, 1), body.tailCell());
+    }
+}
@@ -0,0 +1,85 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks quick turns are each given a tick and only legal ones are kept.
+ */
+public class TurnBufferTest {
+
+    @Test
+    public void twoTurnsInOneTickTakeATickEach() {
+        GameEngine engine = new GameEngine(10, 10, 1);
+        SnakeModel snake = engine.getSnake();
+        snake.grow(3);
+        for (int i = 0; i < 3; i++) {
+            engine.tick();
+        }
+        TurnBuffer turns = new TurnBuffer(3);
+
+        // Up then left before the next tick, a tight U-turn
+        assertTrue(turns.offer(Heading.UP, snake.getHeading(), 1));
+        assertTrue(turns.offer(Heading.LEFT, snake.getHeading(), 2));
+
+        snake.setHeading(turns.poll(snake.getHeading()));
+        engine.tick();
+        assertSame(Heading.UP, snake.getHeading());
+        assertEquals(1, turns.getTakenTime());
+
+        snake.setHeading(turns.poll(snake.getHeading()));
+        engine.tick();
+        assertSame(Heading.LEFT, snake.getHeading());
+        assertEquals(2, turns.getTakenTime());
+        assertFalse(engine.isOver());
+        assertNull(turns.poll(snake.getHeading()));
+    }
+
+    @Test
+    public void dropsStraightOnAndStraightBack() {
+        TurnBuffer turns = new TurnBuffer(3);
+        assertFalse(turns.offer(Heading.RIGHT, Heading.RIGHT, 0));
+        assertFalse(turns.offer(Heading.LEFT, Heading.RIGHT, 0));
+
+        // Judged by where the waiting turns leave it, not where it is now
+        assertTrue(turns.offer(Heading.UP, Heading.RIGHT, 0));
+        assertFalse(turns.offer(Heading.DOWN, Heading.RIGHT, 0));
+        assertTrue(turns.offer(Heading.LEFT, Heading.RIGHT, 0));
+        assertEquals(2, turns.size());
+        assertEquals(3, turns.getDroppedCount());
+    }
+
+    @Test
+    public void relativeTurnsFollowOnFromEachOther() {
+        TurnBuffer turns = new TurnBuffer(3);
+        assertTrue(turns.offerTurn(false, Heading.RIGHT, 0));
+        assertTrue(turns.offerTurn(false, Heading.RIGHT, 0));
+        assertSame(Heading.UP, turns.poll(Heading.RIGHT));
+        assertSame(Heading.LEFT, turns.poll(Heading.UP));
+    }
+
+    @Test
+    public void dropsTurnsWhenFull() {
+        TurnBuffer turns = new TurnBuffer(2);
+        assertTrue(turns.offer(Heading.UP, Heading.RIGHT, 0));
+        assertTrue(turns.offer(Heading.RIGHT, Heading.RIGHT, 0));
+        assertFalse(turns.offer(Heading.DOWN, Heading.RIGHT, 0));
+    }
+
+    @Test
+    public void skipsTurnsThatNoLongerFit() {
+        TurnBuffer turns = new TurnBuffer(3);
+        turns.offer(Heading.UP, Heading.RIGHT, 1);
+        turns.offer(Heading.RIGHT, Heading.RIGHT, 2);
+
+        // Something else turned it down in the meantime
+        assertSame(Heading.RIGHT, turns.poll(Heading.DOWN));
+        assertEquals(2, turns.getTakenTime());
+        assertEquals(0, turns.size());
+
+        turns.offer(Heading.UP, Heading.RIGHT, 3);
+        turns.clear();
+        assertNull(turns.poll(Heading.RIGHT));
+    }
+}
@@ -0,0 +1,151 @@
+package com.csc133.snakegame.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Feeds the vsync clock made up vsync times.
+ */
+public class VsyncClockTest {
+
+    private static final long HZ_60 = 1_000_000_000L / 60;
+    private static final long HZ_120 = 1_000_000_000L / 120;
+
+    @Test
+    public void reportsTheFrameTimeDuringAFrame() {
+        FrameSchedulerTest.FakeClock fake = new FrameSchedulerTest.FakeClock();
+        VsyncClock clock = new VsyncClock(fake, HZ_60);
+
+        fake.now = 1000;
+        assertEquals(1000, clock.nanoTime());
+        clock.beginFrame(5000);
+        fake.now = 9000;
+        assertEquals(5000, clock.nanoTime());
+        clock.endFrame();
+        assertEquals(9000, clock.nanoTime());
+    }
+
+    @Test
+    public void neverGoesBackwards() {
+        FrameSchedulerTest.FakeClock fake = new FrameSchedulerTest.FakeClock();
+        VsyncClock clock = new VsyncClock(fake, HZ_60);
+
+        // The loop looked at the time, then ran a frame
+        // for a vsync from just before
+        fake.now = 10_000;
+        assertEquals(10_000, clock.nanoTime());
+        clock.beginFrame(9_000);
+        assertEquals(10_000, clock.nanoTime());
+    }
+
+    @Test
+    public void learnsTheRefreshRate() {
+        VsyncClock clock = new VsyncClock(new FrameSchedulerTest.FakeClock(), HZ_60);
+
+        long vsync = runVsyncs(clock, 1, HZ_120, 64);
+        assertEquals(HZ_120, clock.getPeriodNanos());
+
+        // And back again when the panel drops to 60Hz
+        runVsyncs(clock, vsync, HZ_60, 64);
+        assertEquals(HZ_60, clock.getPeriodNanos());
+    }
+
+    @Test
+    public void missedVsyncsDontChangeThePeriod() {
+        VsyncClock clock = new VsyncClock(new FrameSchedulerTest.FakeClock(), HZ_60);
+
+        long vsync = 1;
+        for (int i = 0; i < 100; i++) {
+            // Every third frame takes two vsyncs
+            vsync += i % 3 == 0 ? 2 * HZ_60 : HZ_60;
+            clock.beginFrame(vsync);
+            clock.endFrame();
+        }
+        assertEquals(HZ_60, clock.getPeriodNanos());
+    }
+
+    @Test
+    public void drawsEveryOtherVsyncAtHalfTheRefreshRate() {
+        VsyncClock clock = new VsyncClock(new FrameSchedulerTest.FakeClock(), HZ_120);
+
+        assertEquals(60, countFrames(clock, HZ_120, HZ_60, 120));
+    }
+
+    @Test
+    public void drawsEveryVsyncEvenWhenTheyWobble() {
+        VsyncClock clock = new VsyncClock(new FrameSchedulerTest.FakeClock(), HZ_60);
+
+        int frames = 0;
+        long vsync = 1;
+        for (int i = 0; i < 60; i++) {
+            // A panel a little faster than its rate says,
+            // with a bit of noise on top
+            vsync += HZ_60 - 50_000 + (i % 2 == 0 ? 200_000 : -200_000);
+            clock.beginFrame(vsync);
+            if (clock.frameDue(HZ_60)) {
+                frames++;
+                clock.frameDrawn();
+            }
+            clock.endFrame();
+        }
+        assertEquals(60, frames);
+    }
+
+    @Test
+    public void drivesTheSchedulerFromVsyncTimes() {
+        FrameSchedulerTest.FakeClock fake = new FrameSchedulerTest.FakeClock();
+        VsyncClock clock = new VsyncClock(fake, HZ_60);
+        FrameScheduler scheduler = new FrameScheduler(clock, 10, 60, 3);
+
+        // The loop runs late by a different amount each frame, it
+        // makes no difference to the ticks or where the snake is
+        int ticks = 0;
+        for (int i = 1; i <= 60; i++) {
+            long vsync = i * HZ_60;
+            fake.now = vsync + (i % 4) * 3_000_000L;
+            clock.beginFrame(vsync);
+            ticks += scheduler.advance();
+            float expected = (vsync % scheduler.getTickNanos()) / (float) scheduler.getTickNanos();
+            assertEquals(expected, scheduler.interpolation(), 0.001f);
+            clock.endFrame();
+        }
+        assertEquals(9, ticks);
+    }
+
+    @Test
+    public void resetForgetsTheGap() {
+        VsyncClock clock = new VsyncClock(new FrameSchedulerTest.FakeClock(), HZ_60);
+        long vsync = runVsyncs(clock, 1, HZ_60, 10);
+
+        clock.reset();
+        // A long pause, then the first frame is drawn straight away
+        clock.beginFrame(vsync + 5_000_000_000L);
+        assertTrue(clock.frameDue(HZ_60));
+        clock.endFrame();
+    }
+
+    private static long runVsyncs(VsyncClock clock, long vsync, long period, int count) {
+        for (int i = 0; i < count; i++) {
+            vsync += period;
+            clock.beginFrame(vsync);
+            clock.endFrame();
+        }
+        return vsync;
+    }
+
+    private static int countFrames(VsyncClock clock, long period, long frameNanos, int vsyncs) {
+        int frames = 0;
+        long vsync = 1;
+        for (int i = 0; i < vsyncs; i++) {
+            vsync += period;
+            clock.beginFrame(vsync);
+            if (clock.frameDue(frameNanos)) {
+                frames++;
+                clock.frameDrawn();
+            }
+            clock.endFrame();
+        }
+        return frames;
+    }
+}
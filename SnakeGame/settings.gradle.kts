@@ -15,3 +15,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "Snake Game"
 include(":app")
+include(":core")
+include(":benchmarks")